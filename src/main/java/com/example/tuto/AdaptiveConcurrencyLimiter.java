@@ -0,0 +1,84 @@
+package com.example.tuto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency-based AIMD concurrency limiter.
+ *
+ * The limiter tracks the lowest latency seen in the current sample window as
+ * the no-load baseline. When a request completes more than
+ * {@code latencyTolerance} times slower than that baseline, queueing has
+ * started somewhere downstream (usually the DB connection pool) and the
+ * limit is cut multiplicatively; otherwise it grows by one while the limit
+ * is actually being used. All state is updated with CAS, never with locks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final int windowSize;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong minLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger samples = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double latencyTolerance, int windowSize) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.windowSize = windowSize;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    /**
+     * Reserves a slot if fewer than {@code share} of the current limit is in use.
+     * Expensive request classes pass a share below 1 so that they can never
+     * take the whole limit away from cheap ones.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit.get() * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a slot and feeds the observed latency back into the limit. */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+
+        if (samples.incrementAndGet() % windowSize == 0) {
+            // Start a new window so the baseline can follow real changes in latency
+            minLatencyNanos.set(latencyNanos);
+        }
+        long baseline = minLatencyNanos.accumulateAndGet(latencyNanos, Math::min);
+
+        if (latencyNanos > baseline * latencyTolerance) {
+            limit.updateAndGet(l -> Math.max(minLimit, (int) (l * BACKOFF_RATIO)));
+        } else if (inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(l -> Math.min(maxLimit, l + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link UserService} calls that return at once with a
+ * {@link CompletableFuture}, so independent calls can run in parallel.
+ *
+ * Each call runs on its own virtual thread, but at most
+ * {@code max-concurrency} at a time (by default the connection pool size):
+ * the others wait for a slot without holding a connection. Calls never join
+ * the caller's transaction. SQL statistics count towards the caller's scope
+ * (see {@link SqlStatistics#openChildOf}).
+ *
+ * A call that has not completed within {@code timeout} fails with a
+ * {@link TimeoutException}; {@code orTimeout} and {@code cancel} on the
+ * returned future work the same way. A call still waiting for a slot is
+ * then abandoned. One already running is left to finish, because
+ * interrupting a thread inside JDBC can close the database file; its result
+ * is discarded.
+ */
+@Service
+public class AsyncUserService {
+
+    private static final int WAITING = 0;
+    private static final int RUNNING = 1;
+    private static final int ABANDONED = 2;
+
+    private final UserService userService;
+    private final Semaphore slots;
+    private final Duration timeout;
+    private final ThreadFactory threads = Thread.ofVirtual().name("user-async-", 0).factory();
+
+    @Autowired
+    public AsyncUserService(UserService userService,
+                            @Value("${tuto.users.async.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}")
+                            int maxConcurrency,
+                            @Value("${tuto.users.async.timeout:5s}") Duration timeout) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.userService = userService;
+        this.slots = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+    }
+
+    public CompletableFuture<Optional<User>> findByIdAsync(Long id) {
+        return submit(() -> userService.findById(id));
+    }
+
+    public CompletableFuture<UserLookup> lookupUsersAsync(List<Long> ids) {
+        return submit(() -> userService.lookupUsers(ids));
+    }
+
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return submit(userService::getAllUsers);
+    }
+
+    public CompletableFuture<Integer> getUserCountAsync() {
+        return submit(userService::getUserCount);
+    }
+
+    public CompletableFuture<User> createUserAsync(String name, String email) {
+        return submit(() -> userService.createUser(name, email));
+    }
+
+    public CompletableFuture<Optional<User>> updateUserAsync(Long id, String name, String email) {
+        return submit(() -> userService.updateUser(id, name, email));
+    }
+
+    public CompletableFuture<Boolean> deleteUserAsync(Long id) {
+        return submit(() -> userService.deleteUser(id));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        SqlStatistics.Scope callerScope = SqlStatistics.current();
+        AtomicInteger state = new AtomicInteger(WAITING);
+
+        Thread worker = threads.newThread(() -> {
+            try {
+                slots.acquire();
+            } catch (InterruptedException abandoned) {
+                return;
+            }
+            try {
+                if (!state.compareAndSet(WAITING, RUNNING)) {
+                    return;
+                }
+                T value;
+                // Closed before completing, so the counts are in the caller's scope once it sees the result
+                try (SqlStatistics.Scope ignored = SqlStatistics.openChildOf(callerScope)) {
+                    value = call.get();
+                }
+                result.complete(value);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                slots.release();
+            }
+        });
+
+        result.whenComplete((value, failure) -> {
+            if ((failure instanceof CancellationException || failure instanceof TimeoutException)
+                    && state.compareAndSet(WAITING, ABANDONED)) {
+                worker.interrupt();
+            }
+        });
+        worker.start();
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+}
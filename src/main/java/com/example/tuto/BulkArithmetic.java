@@ -0,0 +1,41 @@
+package com.example.tuto;
+
+/**
+ * Element-wise kernels behind the array overloads of {@link Calculator}.
+ *
+ * {@link #INSTANCE} uses the Vector API when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector} and falls back to plain loops
+ * otherwise. Both produce exactly the results of the scalar
+ * {@link Calculator} methods, including {@code int} overflow.
+ */
+interface BulkArithmetic {
+
+    BulkArithmetic INSTANCE = select();
+
+    void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length);
+
+    void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length);
+
+    void multiply(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length);
+
+    /**
+     * @throws IllegalArgumentException if any divisor is zero; {@code out}
+     *         may then be partially written
+     */
+    void divide(int[] a, int aOffset, int[] b, int bOffset, double[] out, int outOffset, int length);
+
+    /** Sets bit {@code i} of {@code bitmap} when element {@code i} is even; other bits are cleared. */
+    void isEven(int[] values, int offset, int length, long[] bitmap);
+
+    private static BulkArithmetic select() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (vectorModule && !Boolean.getBoolean("tuto.calculator.scalar")) {
+            try {
+                return new VectorBulkArithmetic();
+            } catch (LinkageError e) {
+                // Incubator module present but unusable on this JVM
+            }
+        }
+        return new ScalarBulkArithmetic();
+    }
+}
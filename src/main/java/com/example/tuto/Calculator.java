@@ -1,10 +1,34 @@
 package com.example.tuto;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
 /**
  * Simple Calculator class for learning JUnit testing
+ *
+ * The array and buffer overloads apply the scalar operation element-wise
+ * with SIMD instructions when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and with a plain loop
+ * otherwise. Results are identical either way.
  */
 public class Calculator {
 
+    /** Elements summed in a plain long between overflow checks in {@link #sumExact(int[])} */
+    private static final int SUM_BLOCK = 1 << 20;
+
+    private final BulkArithmetic bulk;
+
+    public Calculator() {
+        this(BulkArithmetic.INSTANCE);
+    }
+
+    Calculator(BulkArithmetic bulk) {
+        this.bulk = bulk;
+    }
+
     public int add(int a, int b) {
         return a + b;
     }
@@ -27,4 +51,235 @@ public class Calculator {
     public boolean isEven(int number) {
         return number % 2 == 0;
     }
+
+    // ========== Overflow-safe operations ==========
+
+    /** a + b without int overflow */
+    public long addExact(int a, int b) {
+        return (long) a + b;
+    }
+
+    /** a * b without int overflow */
+    public long multiplyExact(int a, int b) {
+        return (long) a * b;
+    }
+
+    /**
+     * Exact sum of all values. Blocks of ints are summed in a plain long,
+     * which cannot overflow for fewer than 2^32 elements, so the overflow
+     * check only runs once per block.
+     */
+    public ExactAccumulator sumExact(int[] values) {
+        ExactAccumulator sum = ExactAccumulator.ofSum();
+        for (int start = 0; start < values.length; start += SUM_BLOCK) {
+            int end = Math.min(values.length, start + SUM_BLOCK);
+            long blockSum = 0;
+            for (int i = start; i < end; i++) {
+                blockSum += values[i];
+            }
+            sum.add(blockSum);
+        }
+        return sum;
+    }
+
+    /** Exact sum of all values, escalating to BigInteger only on overflow. */
+    public ExactAccumulator sumExact(long[] values) {
+        // Checked loop on a local until the first overflow, then hand over to the accumulator
+        long sum = 0;
+        int i = 0;
+        for (; i < values.length; i++) {
+            long value = values[i];
+            long result = sum + value;
+            if (((sum ^ result) & (value ^ result)) < 0) {
+                break;
+            }
+            sum = result;
+        }
+        ExactAccumulator exact = ExactAccumulator.of(sum);
+        for (; i < values.length; i++) {
+            exact.add(values[i]);
+        }
+        return exact;
+    }
+
+    /** Exact product of all values, escalating to BigInteger only on overflow. */
+    public ExactAccumulator productExact(int[] values) {
+        long product = 1;
+        int i = 0;
+        for (; i < values.length; i++) {
+            long result = product * values[i];
+            if (Math.multiplyHigh(product, values[i]) != (result >> 63)) {
+                break;
+            }
+            product = result;
+        }
+        ExactAccumulator exact = ExactAccumulator.of(product);
+        for (; i < values.length; i++) {
+            exact.multiply(values[i]);
+        }
+        return exact;
+    }
+
+    /** Exact product of all values, escalating to BigInteger only on overflow. */
+    public ExactAccumulator productExact(long[] values) {
+        long product = 1;
+        int i = 0;
+        for (; i < values.length; i++) {
+            long result = product * values[i];
+            if (Math.multiplyHigh(product, values[i]) != (result >> 63)) {
+                break;
+            }
+            product = result;
+        }
+        ExactAccumulator exact = ExactAccumulator.of(product);
+        for (; i < values.length; i++) {
+            exact.multiply(values[i]);
+        }
+        return exact;
+    }
+
+    /**
+     * a / b as a decimal with a fixed number of fractional digits.
+     */
+    public BigDecimal divide(int a, int b, int scale, RoundingMode rounding) {
+        if (b == 0) {
+            throw new IllegalArgumentException("Cannot divide by zero");
+        }
+        return BigDecimal.valueOf(a).divide(BigDecimal.valueOf(b), scale, rounding);
+    }
+
+    /**
+     * a / b as a decimal rounded to the precision of {@code mathContext}.
+     */
+    public BigDecimal divide(int a, int b, MathContext mathContext) {
+        if (b == 0) {
+            throw new IllegalArgumentException("Cannot divide by zero");
+        }
+        return BigDecimal.valueOf(a).divide(BigDecimal.valueOf(b), mathContext);
+    }
+
+    // ========== Bulk operations ==========
+
+    /** out[i] = a[i] + b[i] */
+    public void add(int[] a, int[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        bulk.add(a, 0, b, 0, out, 0, a.length);
+    }
+
+    /** out[i] = a[i] - b[i] */
+    public void subtract(int[] a, int[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        bulk.subtract(a, 0, b, 0, out, 0, a.length);
+    }
+
+    /** out[i] = a[i] * b[i] */
+    public void multiply(int[] a, int[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        bulk.multiply(a, 0, b, 0, out, 0, a.length);
+    }
+
+    /**
+     * out[i] = a[i] / b[i]
+     *
+     * @throws IllegalArgumentException if any b[i] is zero; out may then be partially written
+     */
+    public void divide(int[] a, int[] b, double[] out) {
+        checkLengths(a.length, b.length, out.length);
+        bulk.divide(a, 0, b, 0, out, 0, a.length);
+    }
+
+    /**
+     * Returns a bitmap in which bit {@code i} (bit {@code i % 64} of word
+     * {@code i / 64}) is set when {@code values[i]} is even.
+     */
+    public long[] isEven(int[] values) {
+        long[] bitmap = new long[(values.length + 63) >>> 6];
+        bulk.isEven(values, 0, values.length, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Element-wise add over the remaining elements of {@code a}. Buffer
+     * positions are left unchanged. Heap buffers are processed in place;
+     * direct buffers use a per-element loop.
+     */
+    public void add(IntBuffer a, IntBuffer b, IntBuffer out) {
+        int length = a.remaining();
+        checkLengths(length, b.remaining(), out.remaining());
+        if (a.hasArray() && b.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            bulk.add(a.array(), a.arrayOffset() + a.position(), b.array(), b.arrayOffset() + b.position(),
+                    out.array(), out.arrayOffset() + out.position(), length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.put(out.position() + i, add(a.get(a.position() + i), b.get(b.position() + i)));
+        }
+    }
+
+    /** Element-wise subtract; see {@link #add(IntBuffer, IntBuffer, IntBuffer)}. */
+    public void subtract(IntBuffer a, IntBuffer b, IntBuffer out) {
+        int length = a.remaining();
+        checkLengths(length, b.remaining(), out.remaining());
+        if (a.hasArray() && b.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            bulk.subtract(a.array(), a.arrayOffset() + a.position(), b.array(), b.arrayOffset() + b.position(),
+                    out.array(), out.arrayOffset() + out.position(), length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.put(out.position() + i, subtract(a.get(a.position() + i), b.get(b.position() + i)));
+        }
+    }
+
+    /** Element-wise multiply; see {@link #add(IntBuffer, IntBuffer, IntBuffer)}. */
+    public void multiply(IntBuffer a, IntBuffer b, IntBuffer out) {
+        int length = a.remaining();
+        checkLengths(length, b.remaining(), out.remaining());
+        if (a.hasArray() && b.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            bulk.multiply(a.array(), a.arrayOffset() + a.position(), b.array(), b.arrayOffset() + b.position(),
+                    out.array(), out.arrayOffset() + out.position(), length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.put(out.position() + i, multiply(a.get(a.position() + i), b.get(b.position() + i)));
+        }
+    }
+
+    /** Element-wise divide; see {@link #add(IntBuffer, IntBuffer, IntBuffer)} and {@link #divide(int[], int[], double[])}. */
+    public void divide(IntBuffer a, IntBuffer b, DoubleBuffer out) {
+        int length = a.remaining();
+        checkLengths(length, b.remaining(), out.remaining());
+        if (a.hasArray() && b.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            bulk.divide(a.array(), a.arrayOffset() + a.position(), b.array(), b.arrayOffset() + b.position(),
+                    out.array(), out.arrayOffset() + out.position(), length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.put(out.position() + i, divide(a.get(a.position() + i), b.get(b.position() + i)));
+        }
+    }
+
+    /** Even bitmap over the remaining elements; see {@link #isEven(int[])}. */
+    public long[] isEven(IntBuffer values) {
+        int length = values.remaining();
+        long[] bitmap = new long[(length + 63) >>> 6];
+        if (values.hasArray()) {
+            bulk.isEven(values.array(), values.arrayOffset() + values.position(), length, bitmap);
+            return bitmap;
+        }
+        for (int i = 0; i < length; i++) {
+            if (isEven(values.get(values.position() + i))) {
+                bitmap[i >>> 6] |= 1L << i;
+            }
+        }
+        return bitmap;
+    }
+
+    private static void checkLengths(int length, int otherLength, int outLength) {
+        if (otherLength != length) {
+            throw new IllegalArgumentException("Operands must have the same length");
+        }
+        if (outLength < length) {
+            throw new IllegalArgumentException("Output is too small");
+        }
+    }
 }
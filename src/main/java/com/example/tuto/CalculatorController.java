@@ -0,0 +1,62 @@
+package com.example.tuto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller exposing {@link Calculator}-style arithmetic as expressions
+ *
+ * POST /api/calc/eval
+ *   {"expression": "a * (b + 2)", "variables": {"a": 3, "b": 4}}
+ *   {"expression": "a * (b + 2)", "bindings": [{"a": 3, "b": 4}, {"a": 1, "b": 0}]}
+ */
+@RestController
+@RequestMapping("/api/calc")
+public class CalculatorController {
+
+    static final int MAX_BINDINGS = 10_000;
+
+    private final ExpressionService expressionService;
+
+    public CalculatorController(ExpressionService expressionService) {
+        this.expressionService = expressionService;
+    }
+
+    /**
+     * Evaluate a single binding, or a batch when {@code bindings} is present.
+     * Parse errors, missing variables and division by zero answer 400.
+     */
+    @PostMapping("/eval")
+    public ResponseEntity<EvalResponse> evaluate(@RequestBody EvalRequest request) {
+        if (request.bindings() != null) {
+            if (request.bindings().size() > MAX_BINDINGS) {
+                throw new IllegalArgumentException("At most " + MAX_BINDINGS + " bindings per request");
+            }
+            double[] results = expressionService.evaluateBatch(request.expression(), request.bindings());
+            return ResponseEntity.ok(new EvalResponse(request.expression(), null, results));
+        }
+        Map<String, Double> variables = request.variables() == null ? Map.of() : request.variables();
+        double result = expressionService.evaluate(request.expression(), variables);
+        return ResponseEntity.ok(new EvalResponse(request.expression(), result, null));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badExpression(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
+
+/**
+ * Request DTO for expression evaluation
+ */
+record EvalRequest(String expression, Map<String, Double> variables, List<Map<String, Double>> bindings) {}
+
+/**
+ * Response DTO: {@code result} for a single evaluation, {@code results} for a batch
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record EvalResponse(String expression, Double result, double[] results) {}
@@ -0,0 +1,360 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link UserRepository} that keeps users in a few primitive arrays instead
+ * of the database, for cache-only or embedded deployments; enabled with
+ * {@code tuto.users.store=compact}.
+ *
+ * Users are rows in columns (id, version, arena offset, name and email
+ * lengths), found through an open-addressing {@code long} index. Names and
+ * emails are UTF-8 bytes in one shared arena, the email right after the
+ * name. A user costs about 44 bytes plus its text, instead of a {@link User}
+ * and two Strings; {@code User} objects are only created for the caller.
+ * Space left behind by updates and deletes is reclaimed whenever the arena
+ * fills up. Nothing survives a restart.
+ *
+ * A transaction's writes are applied together under the write lock when
+ * it commits, so readers see all of them or none.
+ *
+ * The near-cache and second-level cache add nothing in front of this store
+ * and can be turned off. See {@link UserStoreRepository} for how it differs
+ * from the JPA repository.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "tuto.users.store", havingValue = "compact")
+public class CompactUserRepository extends UserStoreRepository {
+
+    /** Marks a free index slot, so it cannot be used as an id */
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int NULL_TEXT = -1;
+    private static final int MAX_ARENA = Integer.MAX_VALUE - 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Index: id -> row, linear probing, at most 3/4 full
+    private long[] keys;
+    private int[] slotRows;
+    private int mask;
+
+    // Columns, one row per user
+    private long[] ids;
+    private long[] versions;
+    private int[] offsets;
+    private int[] nameLengths;
+    private int[] emailLengths;
+    private int size;
+
+    private byte[] arena;
+    private int arenaUsed;
+
+    public CompactUserRepository(@Value("${tuto.users.compact.initial-capacity:1024}") int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive");
+        }
+        allocate(initialCapacity);
+    }
+
+    private void allocate(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(4, capacity * 4 / 3 + 1) - 1) << 1;
+        keys = new long[slots];
+        Arrays.fill(keys, FREE);
+        slotRows = new int[slots];
+        mask = slots - 1;
+        ids = new long[capacity];
+        versions = new long[capacity];
+        offsets = new int[capacity];
+        nameLengths = new int[capacity];
+        emailLengths = new int[capacity];
+        size = 0;
+        arena = new byte[capacity * 32];
+        arenaUsed = 0;
+    }
+
+    @Override
+    protected User load(long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? null : materialize(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected List<User> load(List<Long> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                int row = rowOf(requireId(id));
+                users.add(row < 0 ? null : materialize(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return users;
+    }
+
+    @Override
+    protected List<User> loadAll() {
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                users.add(materialize(row));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected long version(long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(id);
+            return row < 0 ? ABSENT : versions[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void commit(List<Write> writes) {
+        byte[][] texts = new byte[writes.size() * 2][];
+        long length = 0;
+        for (int i = 0; i < writes.size(); i++) {
+            User user = writes.get(i).user();
+            if (user != null) {
+                texts[2 * i] = encode(user.getName());
+                texts[2 * i + 1] = encode(user.getEmail());
+                length += length(texts[2 * i]) + length(texts[2 * i + 1]);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (Write write : writes) {
+                int row = rowOf(write.id());
+                check(write, row < 0 ? ABSENT : versions[row]);
+            }
+            // Before any row changes, so compaction only ever copies complete rows
+            // and a full store fails the whole commit
+            reserve(length);
+            for (int i = 0; i < writes.size(); i++) {
+                Write write = writes.get(i);
+                int row = rowOf(write.id());
+                if (write.user() == null) {
+                    if (row >= 0) {
+                        remove(row);
+                    }
+                    continue;
+                }
+                if (row < 0) {
+                    row = insert(write.id());
+                }
+                versions[row] = write.user().getVersion();
+                writeText(row, texts[2 * i], texts[2 * i + 1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void eraseAll() {
+        lock.writeLock().lock();
+        try {
+            allocate(ids.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== Storage ==========
+
+    @Override
+    protected Long requireId(Long id) {
+        if (id != null && id == FREE) {
+            throw new InvalidDataAccessApiUsageException("User id " + FREE + " is reserved by the compact store");
+        }
+        return super.requireId(id);
+    }
+
+    private static int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /** @return the row of {@code id}, or -1 */
+    private int rowOf(long id) {
+        for (int slot = slot(id) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return slotRows[slot];
+            }
+        }
+        return -1;
+    }
+
+    private int slotOf(long id) {
+        int slot = slot(id) & mask;
+        while (keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int insert(long id) {
+        if (size == ids.length) {
+            growRows();
+        }
+        int row = size++;
+        ids[row] = id;
+        index(id, row);
+        return row;
+    }
+
+    private void index(long id, int row) {
+        int slot = slot(id) & mask;
+        while (keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        slotRows[slot] = row;
+    }
+
+    private void growRows() {
+        int capacity = ids.length + (ids.length >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        emailLengths = Arrays.copyOf(emailLengths, capacity);
+        if (capacity * 4L > keys.length * 3L) {
+            keys = new long[keys.length * 2];
+            Arrays.fill(keys, FREE);
+            slotRows = new int[keys.length];
+            mask = keys.length - 1;
+            for (int row = 0; row < size; row++) {
+                index(ids[row], row);
+            }
+        }
+    }
+
+    /** Moves the last row into {@code row} and drops {@code row}'s index slot */
+    private void remove(int row) {
+        unindex(slotOf(ids[row]));
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            versions[row] = versions[last];
+            offsets[row] = offsets[last];
+            nameLengths[row] = nameLengths[last];
+            emailLengths[row] = emailLengths[last];
+            slotRows[slotOf(ids[row])] = row;
+        }
+    }
+
+    /** Backward-shift deletion: pulls later entries of the probe run into the hole, so no tombstones are needed */
+    private void unindex(int hole) {
+        for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                slotRows[hole] = slotRows[next];
+                hole = next;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    private static int length(byte[] text) {
+        return text == null ? 0 : text.length;
+    }
+
+    /** Appends the text of {@code row}; the space must have been reserved */
+    private void writeText(int row, byte[] name, byte[] email) {
+        int length = length(name) + length(email);
+        int offset = arenaUsed;
+        offsets[row] = offset;
+        nameLengths[row] = name == null ? NULL_TEXT : name.length;
+        emailLengths[row] = email == null ? NULL_TEXT : email.length;
+        if (name != null) {
+            System.arraycopy(name, 0, arena, offset, name.length);
+            offset += name.length;
+        }
+        if (email != null) {
+            System.arraycopy(email, 0, arena, offset, email.length);
+        }
+        arenaUsed += length;
+    }
+
+    /**
+     * Makes room for {@code length} more bytes by copying the live text to a
+     * fresh arena, of the same size if the result is at most half full
+     */
+    private void reserve(long length) {
+        if (arenaUsed + length <= arena.length) {
+            return;
+        }
+        long live = 0;
+        for (int row = 0; row < size; row++) {
+            live += Math.max(nameLengths[row], 0) + Math.max(emailLengths[row], 0);
+        }
+        if (live + length > MAX_ARENA) {
+            throw new IllegalStateException("Compact user store is full");
+        }
+        int capacity = live + length <= arena.length / 2
+            ? arena.length
+            : (int) Math.min(MAX_ARENA, Math.max(live + length, arena.length * 2L));
+        byte[] compacted = new byte[capacity];
+        int used = 0;
+        for (int row = 0; row < size; row++) {
+            int bytes = Math.max(nameLengths[row], 0) + Math.max(emailLengths[row], 0);
+            System.arraycopy(arena, offsets[row], compacted, used, bytes);
+            offsets[row] = used;
+            used += bytes;
+        }
+        arena = compacted;
+        arenaUsed = used;
+    }
+
+    private User materialize(int row) {
+        int offset = offsets[row];
+        String name = decode(offset, nameLengths[row]);
+        String email = decode(offset + Math.max(nameLengths[row], 0), emailLengths[row]);
+        return new User(ids[row], name, email, versions[row]);
+    }
+
+    private static byte[] encode(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String decode(int offset, int length) {
+        return length == NULL_TEXT ? null : new String(arena, offset, length, StandardCharsets.UTF_8);
+    }
+}
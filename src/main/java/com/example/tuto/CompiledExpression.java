@@ -0,0 +1,74 @@
+package com.example.tuto;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An arithmetic expression compiled once into a {@link MethodHandle} tree.
+ *
+ * The handle takes the variable values as a {@code double[]} in the order of
+ * {@link #variables()} and returns the result; evaluating it never touches
+ * the expression text again.
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final List<String> variables;
+    private final MethodHandle evaluator;
+
+    CompiledExpression(String source, List<String> variables, MethodHandle evaluator) {
+        this.source = source;
+        this.variables = List.copyOf(variables);
+        this.evaluator = evaluator;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /** Variable names in slot order, as first seen in the expression */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * Evaluates with values already laid out in slot order.
+     * Reuse the array across calls to evaluate without allocating.
+     */
+    public double evaluate(double[] values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException(
+                "Expected " + variables.size() + " variable values, got " + values.length);
+        }
+        try {
+            return (double) evaluator.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /** Evaluates with values looked up by variable name */
+    public double evaluate(Map<String, ? extends Number> bindings) {
+        return evaluate(bind(bindings, new double[variables.size()]));
+    }
+
+    /** Copies named bindings into {@code slots}; unused bindings are ignored */
+    double[] bind(Map<String, ? extends Number> bindings, double[] slots) {
+        for (int i = 0; i < slots.length; i++) {
+            Number value = bindings == null ? null : bindings.get(variables.get(i));
+            if (value == null) {
+                throw new IllegalArgumentException("No value for variable '" + variables.get(i) + "'");
+            }
+            slots[i] = value.doubleValue();
+        }
+        return slots;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.tuto;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Always-on JDK Flight Recorder session.
+ *
+ * Uses the JDK's {@code default} settings (the low-overhead profile meant
+ * for production) plus the {@link UserRequestEvent} and
+ * {@link UserServiceCallEvent} events, and keeps a rolling window of
+ * {@code maxAge} / {@code maxSize} in the JFR disk repository. Dumps are
+ * plain {@code .jfr} files for JDK Mission Control or {@code jfr print}.
+ */
+public class ContinuousRecording implements AutoCloseable {
+
+    static final String NAME = "tuto-continuous";
+
+    private final Recording recording;
+    private final Clock clock;
+
+    public ContinuousRecording(Duration maxAge, long maxSizeBytes, Duration eventThreshold) {
+        this(maxAge, maxSizeBytes, eventThreshold, Clock.systemUTC());
+    }
+
+    ContinuousRecording(Duration maxAge, long maxSizeBytes, Duration eventThreshold, Clock clock) {
+        try {
+            this.recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load the default JFR configuration", e);
+        }
+        this.clock = clock;
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable(UserRequestEvent.class).withThreshold(eventThreshold);
+        recording.enable(UserServiceCallEvent.class).withThreshold(eventThreshold);
+    }
+
+    public void start() {
+        recording.start();
+    }
+
+    public boolean isRunning() {
+        return recording.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * Writes the recorded data to a new temporary file, which the caller
+     * owns and should delete.
+     *
+     * @param last only keep events that ended within this window, or
+     *             {@code null} for everything still retained
+     */
+    public Path dump(Duration last) {
+        try {
+            Path full = Files.createTempFile("tuto-", ".jfr");
+            recording.dump(full);
+            if (last == null) {
+                return full;
+            }
+            Instant cutoff = clock.instant().minus(last);
+            Path window = Files.createTempFile("tuto-", ".jfr");
+            try (RecordingFile file = new RecordingFile(full)) {
+                file.write(window, event -> keep(event, cutoff));
+            } finally {
+                Files.deleteIfExists(full);
+            }
+            return window;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot dump the JFR recording", e);
+        }
+    }
+
+    /** Recent events, plus the recording settings tools use to interpret them */
+    private static boolean keep(RecordedEvent event, Instant cutoff) {
+        return !event.getEndTime().isBefore(cutoff) || event.getEventType().getName().startsWith("jdk.Active");
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.tuto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Streaming batch mode for {@link Calculator} over CSV files of
+ * {@code a,b,op} rows, where {@code a} and {@code b} are ints and
+ * {@code op} is {@code add}, {@code subtract}, {@code multiply},
+ * {@code divide} or one of {@code + - * /}.
+ *
+ * The input is cut into chunks of about {@code chunkSize} bytes that end on
+ * a line boundary. Each chunk is memory-mapped and processed on the pool
+ * into its own part file next to the output; the parts are then
+ * concatenated in order, so output line N always answers input row N.
+ *
+ * Parsing works on the mapped bytes directly and results are formatted into
+ * a reused direct buffer, so no objects are allocated per row. Output lines
+ * are the int result, the quotient with exactly six decimals (rounded half
+ * away from zero) for division, or {@code ERR}. Empty lines are skipped and
+ * produce no output; a header row is reported as an error row.
+ */
+public class CsvBatchCalculator {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int OUTPUT_BUFFER_SIZE = 256 << 10;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final Calculator calculator;
+
+    public CsvBatchCalculator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvBatchCalculator(ForkJoinPool pool, int chunkSize) {
+        this(pool, chunkSize, new Calculator());
+    }
+
+    CsvBatchCalculator(ForkJoinPool pool, int chunkSize, Calculator calculator) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.calculator = calculator;
+    }
+
+    /**
+     * Processes {@code input} into {@code output}, replacing it if present.
+     */
+    public CsvBatchResult process(Path input, Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        String prefix = output.getFileName() + ".";
+        List<Path> parts = new ArrayList<>();
+        List<ForkJoinTask<long[]>> tasks = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+            long start = 0;
+            while (start < size) {
+                long end = chunkEnd(in, start, size);
+                Path part = Files.createTempFile(directory, prefix, ".part");
+                parts.add(part);
+                long from = start;
+                tasks.add(pool.submit(() -> processChunk(in, from, end, part)));
+                start = end;
+            }
+            long rows = 0;
+            long errors = 0;
+            RuntimeException failure = null;
+            for (ForkJoinTask<long[]> task : tasks) {
+                try {
+                    long[] counts = task.join();
+                    rows += counts[0];
+                    errors += counts[1];
+                } catch (RuntimeException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            if (failure instanceof UncheckedIOException e) {
+                throw e.getCause();
+            } else if (failure != null) {
+                throw failure;
+            }
+            concatenate(parts, output);
+            return new CsvBatchResult(rows, errors);
+        } finally {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    /** First byte after the line that contains position {@code start + chunkSize - 1} */
+    private long chunkEnd(FileChannel in, long start, long size) throws IOException {
+        long position = start + chunkSize - 1;
+        ByteBuffer scan = ByteBuffer.allocate(8192);
+        while (position < size) {
+            scan.clear();
+            int read = in.read(scan, position);
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return checkLength(start, position + i + 1);
+                }
+            }
+            position += read;
+        }
+        return checkLength(start, size);
+    }
+
+    private static long checkLength(long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("Line starting near byte " + start + " is too long to map");
+        }
+        return end;
+    }
+
+    private long[] processChunk(FileChannel in, long start, long end, Path part) {
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            ChunkProcessor processor = new ChunkProcessor(calculator, ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE));
+            processor.process(mapped, out);
+            return new long[] {processor.rows, processor.errors};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void concatenate(List<Path> parts, Path output) throws IOException {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long position = 0; position < size; ) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses and evaluates rows of one chunk. Holds all per-row state in
+     * fields so the row loop allocates nothing.
+     */
+    static final class ChunkProcessor {
+
+        private static final int ADD = 0;
+        private static final int SUBTRACT = 1;
+        private static final int MULTIPLY = 2;
+        private static final int DIVIDE = 3;
+        private static final byte[][] OPERATION_NAMES = {
+            {'a', 'd', 'd'},
+            {'s', 'u', 'b', 't', 'r', 'a', 'c', 't'},
+            {'m', 'u', 'l', 't', 'i', 'p', 'l', 'y'},
+            {'d', 'i', 'v', 'i', 'd', 'e'},
+        };
+        private static final byte[] OPERATION_SYMBOLS = {'+', '-', '*', '/'};
+        private static final byte[] ERROR = {'E', 'R', 'R'};
+        /** Longest output line: "-2147483648.000000\n" */
+        private static final int MAX_LINE = 24;
+
+        private final Calculator calculator;
+        private final ByteBuffer output;
+        private final byte[] digits = new byte[20];
+        private int parsed;
+        long rows;
+        long errors;
+
+        ChunkProcessor(Calculator calculator, ByteBuffer output) {
+            this.calculator = calculator;
+            this.output = output;
+        }
+
+        void process(ByteBuffer in, WritableByteChannel out) throws IOException {
+            int limit = in.limit();
+            int position = in.position();
+            while (position < limit) {
+                int newline = position;
+                while (newline < limit && in.get(newline) != '\n') {
+                    newline++;
+                }
+                int end = newline > position && in.get(newline - 1) == '\r' ? newline - 1 : newline;
+                if (end > position) {
+                    if (output.remaining() < MAX_LINE) {
+                        flush(out);
+                    }
+                    rows++;
+                    if (!evaluate(in, position, end)) {
+                        errors++;
+                        output.put(ERROR);
+                    }
+                    output.put((byte) '\n');
+                }
+                position = newline + 1;
+            }
+            flush(out);
+        }
+
+        private boolean evaluate(ByteBuffer in, int from, int to) {
+            int firstComma = indexOf(in, from, to, (byte) ',');
+            int secondComma = firstComma < 0 ? -1 : indexOf(in, firstComma + 1, to, (byte) ',');
+            if (secondComma < 0 || !parseInt(in, from, firstComma)) {
+                return false;
+            }
+            int a = parsed;
+            if (!parseInt(in, firstComma + 1, secondComma)) {
+                return false;
+            }
+            int b = parsed;
+            switch (parseOperation(in, secondComma + 1, to)) {
+                case ADD -> writeLong(calculator.add(a, b));
+                case SUBTRACT -> writeLong(calculator.subtract(a, b));
+                case MULTIPLY -> writeLong(calculator.multiply(a, b));
+                case DIVIDE -> {
+                    if (b == 0) {
+                        return false;
+                    }
+                    writeFixed6(calculator.divide(a, b));
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int indexOf(ByteBuffer in, int from, int to, byte target) {
+            for (int i = from; i < to; i++) {
+                if (in.get(i) == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /** Parses a trimmed, optionally signed int into {@link #parsed} */
+        private boolean parseInt(ByteBuffer in, int from, int to) {
+            while (from < to && isBlank(in.get(from))) {
+                from++;
+            }
+            while (to > from && isBlank(in.get(to - 1))) {
+                to--;
+            }
+            boolean negative = false;
+            if (from < to && (in.get(from) == '-' || in.get(from) == '+')) {
+                negative = in.get(from) == '-';
+                from++;
+            }
+            if (from == to || to - from > 10) {
+                return false;
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = in.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return false;
+                }
+                value = value * 10 + digit;
+            }
+            value = negative ? -value : value;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                return false;
+            }
+            parsed = (int) value;
+            return true;
+        }
+
+        private static int parseOperation(ByteBuffer in, int from, int to) {
+            while (from < to && isBlank(in.get(from))) {
+                from++;
+            }
+            while (to > from && isBlank(in.get(to - 1))) {
+                to--;
+            }
+            if (to - from == 1) {
+                for (int op = 0; op < OPERATION_SYMBOLS.length; op++) {
+                    if (in.get(from) == OPERATION_SYMBOLS[op]) {
+                        return op;
+                    }
+                }
+                return -1;
+            }
+            for (int op = 0; op < OPERATION_NAMES.length; op++) {
+                if (matches(in, from, to, OPERATION_NAMES[op])) {
+                    return op;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean matches(ByteBuffer in, int from, int to, byte[] name) {
+            if (to - from != name.length) {
+                return false;
+            }
+            for (int i = 0; i < name.length; i++) {
+                if (in.get(from + i) != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t';
+        }
+
+        private void writeLong(long value) {
+            if (value < 0) {
+                output.put((byte) '-');
+                value = -value;
+            }
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            while (length > 0) {
+                output.put(digits[--length]);
+            }
+        }
+
+        /** |value| <= 2^31, so the value scaled by 10^6 is exact enough in a double and fits a long */
+        private void writeFixed6(double value) {
+            long scaled = Math.round(Math.abs(value) * 1_000_000d);
+            if (value < 0 && scaled != 0) {
+                output.put((byte) '-');
+            }
+            writeLong(scaled / 1_000_000);
+            output.put((byte) '.');
+            long fraction = scaled % 1_000_000;
+            for (long unit = 100_000; unit > 0; unit /= 10) {
+                output.put((byte) ('0' + fraction / unit % 10));
+            }
+        }
+
+        private void flush(WritableByteChannel out) throws IOException {
+            output.flip();
+            while (output.hasRemaining()) {
+                out.write(output);
+            }
+            output.clear();
+        }
+    }
+}
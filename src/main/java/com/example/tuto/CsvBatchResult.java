@@ -0,0 +1,10 @@
+package com.example.tuto;
+
+/**
+ * Outcome of a {@link CsvBatchCalculator} run.
+ *
+ * @param rows   non-empty input lines, each of which produced one output line
+ * @param errors rows written as {@code ERR} (malformed, unknown operation or zero divisor)
+ */
+public record CsvBatchResult(long rows, long errors) {
+}
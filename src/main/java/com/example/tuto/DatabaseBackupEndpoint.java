@@ -0,0 +1,63 @@
+package com.example.tuto;
+
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code POST /actuator/backup} takes an online backup of the file-backed
+ * H2 database with {@code BACKUP TO}: a consistent zip of the store, taken
+ * while reads and writes continue. Only registered by
+ * {@link PersistentDatabaseConfiguration}; in-memory databases cannot be
+ * backed up this way.
+ */
+@WebEndpoint(id = "backup")
+public class DatabaseBackupEndpoint {
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final Clock clock;
+
+    public DatabaseBackupEndpoint(JdbcTemplate jdbcTemplate, Path directory) {
+        this(jdbcTemplate, directory, Clock.systemUTC());
+    }
+
+    DatabaseBackupEndpoint(JdbcTemplate jdbcTemplate, Path directory, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory;
+        this.clock = clock;
+    }
+
+    /** One backup at a time; H2 would serialize them anyway */
+    @WriteOperation
+    public synchronized Map<String, Object> backup() {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve("tuto-" + TIMESTAMP.format(clock.instant()) + ".zip").toAbsolutePath();
+            long start = System.nanoTime();
+            jdbcTemplate.execute("BACKUP TO '" + file.toString().replace("'", "''") + "'");
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", file.toString());
+            result.put("bytes", Files.size(file));
+            result.put("millis", millis);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the database backup", e);
+        }
+    }
+}
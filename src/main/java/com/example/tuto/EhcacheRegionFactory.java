@@ -0,0 +1,34 @@
+package com.example.tuto;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JCache region factory giving every session factory its own Ehcache
+ * manager, configured from {@code ehcache.xml}.
+ *
+ * JCache hands out one manager per configuration URI and class loader, and
+ * Hibernate closes it with the session factory; with the stock factory,
+ * closing one application context would break the cache of every other
+ * context in the JVM (test contexts, a restart in the same JVM).
+ */
+public class EhcacheRegionFactory extends JCacheRegionFactory {
+
+    static final String CONFIGURATION = "/ehcache.xml";
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider)
+            Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        XmlConfiguration configuration = new XmlConfiguration(EhcacheRegionFactory.class.getResource(CONFIGURATION));
+        return provider.getCacheManager(URI.create("urn:tuto:second-level-cache:" + UUID.randomUUID()), configuration);
+    }
+}
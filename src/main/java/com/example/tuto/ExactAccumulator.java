@@ -0,0 +1,109 @@
+package com.example.tuto;
+
+import java.math.BigInteger;
+
+/**
+ * Running sum or product that never overflows.
+ *
+ * The value lives in a {@code long} and every step checks for overflow
+ * with a couple of integer instructions; only when a result no longer fits
+ * does the accumulator switch to {@link BigInteger} for good. Workloads that
+ * stay within 64 bits therefore run at primitive speed and allocate nothing.
+ *
+ * Not thread-safe; parallel code should use one accumulator per task and
+ * {@link #add(ExactAccumulator) combine} them.
+ */
+public final class ExactAccumulator {
+
+    private long value;
+    /** Non-null once the value has outgrown a long. */
+    private BigInteger big;
+
+    private ExactAccumulator(long value) {
+        this.value = value;
+    }
+
+    public static ExactAccumulator ofSum() {
+        return new ExactAccumulator(0);
+    }
+
+    public static ExactAccumulator ofProduct() {
+        return new ExactAccumulator(1);
+    }
+
+    public static ExactAccumulator of(long value) {
+        return new ExactAccumulator(value);
+    }
+
+    public ExactAccumulator add(long x) {
+        if (big == null) {
+            long result = value + x;
+            // Overflow iff both operands have the sign opposite to the result
+            if (((value ^ result) & (x ^ result)) >= 0) {
+                value = result;
+                return this;
+            }
+            big = BigInteger.valueOf(value);
+        }
+        big = big.add(BigInteger.valueOf(x));
+        return this;
+    }
+
+    public ExactAccumulator multiply(long x) {
+        if (big == null) {
+            long low = value * x;
+            long high = Math.multiplyHigh(value, x);
+            if (high == (low >> 63)) {
+                value = low;
+                return this;
+            }
+            big = BigInteger.valueOf(value);
+        }
+        if (big.signum() != 0) {
+            big = big.multiply(BigInteger.valueOf(x));
+        }
+        return this;
+    }
+
+    /** Adds the value of another accumulator. */
+    public ExactAccumulator add(ExactAccumulator other) {
+        if (other.big == null) {
+            return add(other.value);
+        }
+        big = toBigInteger().add(other.big);
+        return this;
+    }
+
+    /** Multiplies by the value of another accumulator. */
+    public ExactAccumulator multiply(ExactAccumulator other) {
+        if (other.big == null) {
+            return multiply(other.value);
+        }
+        big = toBigInteger().multiply(other.big);
+        return this;
+    }
+
+    /** True while the value has never left the long range. */
+    public boolean fitsInLong() {
+        return big == null;
+    }
+
+    /**
+     * @throws ArithmeticException if the value does not fit in a long
+     */
+    public long longValueExact() {
+        if (big != null) {
+            return big.longValueExact();
+        }
+        return value;
+    }
+
+    public BigInteger toBigInteger() {
+        return big != null ? big : BigInteger.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        return big != null ? big.toString() : Long.toString(value);
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.tuto;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser for {@code + - * /}, unary minus, parentheses,
+ * decimal literals and identifiers, emitting a {@link MethodHandle} tree
+ * instead of an AST.
+ *
+ * Every node is a handle of type {@code (double[])double}: literals ignore
+ * the array, variables read their slot, and operators combine two children
+ * with {@link MethodHandles#filterArguments} and fold the duplicated array
+ * parameter with {@link MethodHandles#permuteArguments}. Subtrees without
+ * variables are folded to constants at compile time. Division follows
+ * {@link Calculator#divide(int, int)} and rejects a zero divisor.
+ */
+final class ExpressionCompiler {
+
+    static final int MAX_LENGTH = 4096;
+    static final int MAX_DEPTH = 128;
+
+    private static final MethodType NODE = MethodType.methodType(double.class, double[].class);
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUBTRACT;
+    private static final MethodHandle MULTIPLY;
+    private static final MethodHandle DIVIDE;
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle SLOT = MethodHandles.arrayElementGetter(double[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType binary = MethodType.methodType(double.class, double.class, double.class);
+            ADD = lookup.findStatic(ExpressionCompiler.class, "add", binary);
+            SUBTRACT = lookup.findStatic(ExpressionCompiler.class, "subtract", binary);
+            MULTIPLY = lookup.findStatic(ExpressionCompiler.class, "multiply", binary);
+            DIVIDE = lookup.findStatic(ExpressionCompiler.class, "divide", binary);
+            NEGATE = lookup.findStatic(ExpressionCompiler.class, "negate",
+                MethodType.methodType(double.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ExpressionCompiler() {}
+
+    static CompiledExpression compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Expression cannot be empty");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Expression longer than " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(source);
+        Node root = parser.expression(0);
+        parser.skipWhitespace();
+        if (parser.pos < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return new CompiledExpression(source, parser.variables, root.handle());
+    }
+
+    // Operator targets; kept static so the JIT inlines them through the handle tree
+
+    private static double add(double a, double b) {
+        return a + b;
+    }
+
+    private static double subtract(double a, double b) {
+        return a - b;
+    }
+
+    private static double multiply(double a, double b) {
+        return a * b;
+    }
+
+    private static double divide(double a, double b) {
+        if (b == 0) {
+            throw new IllegalArgumentException("Cannot divide by zero");
+        }
+        return a / b;
+    }
+
+    private static double negate(double a) {
+        return -a;
+    }
+
+    /** A handle plus, for constant subtrees, its folded value */
+    private record Node(MethodHandle handle, boolean constant, double value) {
+
+        static Node constant(double value) {
+            MethodHandle handle = MethodHandles.dropArguments(
+                MethodHandles.constant(double.class, value), 0, double[].class);
+            return new Node(handle, true, value);
+        }
+
+        static Node slot(int index) {
+            return new Node(MethodHandles.insertArguments(SLOT, 1, index).asType(NODE), false, 0);
+        }
+
+        static Node unary(MethodHandle op, Node operand) {
+            if (operand.constant) {
+                try {
+                    return constant((double) op.invokeExact(operand.value));
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+            return new Node(MethodHandles.filterReturnValue(operand.handle, op), false, 0);
+        }
+
+        static Node binary(MethodHandle op, Node left, Node right) {
+            if (left.constant && right.constant) {
+                try {
+                    return constant((double) op.invokeExact(left.value, right.value));
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                }
+            }
+            MethodHandle both = MethodHandles.filterArguments(op, 0, left.handle, right.handle);
+            return new Node(MethodHandles.permuteArguments(both, NODE, 0, 0), false, 0);
+        }
+
+        private static RuntimeException rethrow(Throwable t) {
+            if (t instanceof RuntimeException e) {
+                return e;
+            }
+            return new IllegalStateException(t);
+        }
+    }
+
+    private static final class Parser {
+
+        private final String text;
+        private final List<String> variables = new ArrayList<>();
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        // expression := term (('+' | '-') term)*
+        Node expression(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw error("Expression nested deeper than " + MAX_DEPTH);
+            }
+            Node left = term(depth);
+            while (true) {
+                if (accept('+')) {
+                    left = Node.binary(ADD, left, term(depth));
+                } else if (accept('-')) {
+                    left = Node.binary(SUBTRACT, left, term(depth));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // term := factor (('*' | '/') factor)*
+        private Node term(int depth) {
+            Node left = factor(depth);
+            while (true) {
+                if (accept('*')) {
+                    left = Node.binary(MULTIPLY, left, factor(depth));
+                } else if (accept('/')) {
+                    left = Node.binary(DIVIDE, left, factor(depth));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // factor := ('-' | '+') factor | number | identifier | '(' expression ')'
+        private Node factor(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw error("Expression nested deeper than " + MAX_DEPTH);
+            }
+            if (accept('-')) {
+                return Node.unary(NEGATE, factor(depth + 1));
+            }
+            if (accept('+')) {
+                return factor(depth + 1);
+            }
+            if (accept('(')) {
+                Node inner = expression(depth + 1);
+                if (!accept(')')) {
+                    throw error("Expected ')'");
+                }
+                return inner;
+            }
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("Unexpected end of expression");
+            }
+            char c = text.charAt(pos);
+            if (Character.isDigit(c) || c == '.') {
+                return number();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                return variable();
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Node number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                pos++;
+                if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                    pos++;
+                }
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+            String literal = text.substring(start, pos);
+            try {
+                return Node.constant(Double.parseDouble(literal));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Invalid number '" + literal + "'");
+            }
+        }
+
+        private Node variable() {
+            int start = pos;
+            while (pos < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            int index = variables.indexOf(name);
+            if (index < 0) {
+                index = variables.size();
+                variables.add(name);
+            }
+            return Node.slot(index);
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
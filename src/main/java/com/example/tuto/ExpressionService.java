@@ -0,0 +1,90 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates arithmetic expressions through a bounded LRU cache of
+ * {@link CompiledExpression}s keyed by expression text.
+ *
+ * A cache hit skips parsing and handle construction entirely; a batch
+ * compiles (or looks up) once and then only fills a reused slot array per
+ * binding.
+ */
+@Service
+public class ExpressionService {
+
+    private final int capacity;
+    private final Map<String, CompiledExpression> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExpressionService(@Value("${tuto.calc.cache-size:1024}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > ExpressionService.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached compiled form of {@code expression}, compiling it on
+     * a miss. Compilation happens outside the lock, so two threads missing on
+     * the same text may both compile; the results are interchangeable.
+     */
+    public CompiledExpression compile(String expression) {
+        CompiledExpression compiled;
+        synchronized (cache) {
+            compiled = cache.get(expression);
+        }
+        if (compiled != null) {
+            hits.incrementAndGet();
+            return compiled;
+        }
+        misses.incrementAndGet();
+        compiled = ExpressionCompiler.compile(expression);
+        synchronized (cache) {
+            cache.putIfAbsent(expression, compiled);
+        }
+        return compiled;
+    }
+
+    public double evaluate(String expression, Map<String, ? extends Number> variables) {
+        return compile(expression).evaluate(variables);
+    }
+
+    /** Evaluates one expression against each binding, in order */
+    public double[] evaluateBatch(String expression, List<? extends Map<String, ? extends Number>> bindings) {
+        CompiledExpression compiled = compile(expression);
+        double[] slots = new double[compiled.variables().size()];
+        double[] results = new double[bindings.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = compiled.evaluate(compiled.bind(bindings.get(i), slots));
+        }
+        return results;
+    }
+
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long cacheHits() {
+        return hits.get();
+    }
+
+    public long cacheMisses() {
+        return misses.get();
+    }
+}
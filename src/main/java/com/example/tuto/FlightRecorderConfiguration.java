@@ -0,0 +1,99 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Always-on JDK Flight Recorder, unless {@code tuto.jfr.enabled=false}.
+ *
+ * Starts the {@link ContinuousRecording}, emits {@link UserRequestEvent}s
+ * from {@link FlightRecorderFilter} and a {@link UserServiceCallEvent} for
+ * every public {@link UserService} method, and exposes the
+ * {@link FlightRecorderEndpoint}. The recording is excluded from lazy
+ * initialization so it runs from startup, not from the first dump.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tuto.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerContinuousRecording() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ContinuousRecording.class);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ContinuousRecording continuousRecording(
+            @Value("${tuto.jfr.max-age:30m}") Duration maxAge,
+            @Value("${tuto.jfr.max-size:100MB}") DataSize maxSize,
+            @Value("${tuto.jfr.event-threshold:0ms}") Duration eventThreshold) {
+        ContinuousRecording recording = new ContinuousRecording(maxAge, maxSize.toBytes(), eventThreshold);
+        recording.start();
+        return recording;
+    }
+
+    @Bean
+    public FlightRecorderEndpoint flightRecorderEndpoint(ContinuousRecording recording) {
+        return new FlightRecorderEndpoint(recording);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FlightRecorderFilter> flightRecorderFilter() {
+        return new FilterRegistrationBean<>(new FlightRecorderFilter());
+    }
+
+    @Bean
+    static BeanPostProcessor userServiceFlightRecorder() {
+        return new ServiceAdvisingPostProcessor(UserService.class, invocation -> {
+            UserServiceCallEvent event = new UserServiceCallEvent();
+            if (!event.isEnabled()) {
+                return invocation.proceed();
+            }
+            Object result = null;
+            String outcome = null;
+            SqlStatistics.Scope scope = SqlStatistics.open(false);
+            event.begin();
+            try {
+                result = invocation.proceed();
+                return result;
+            } catch (Throwable e) {
+                outcome = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                event.end();
+                scope.close();
+                if (event.shouldCommit()) {
+                    SqlCounts counts = scope.counts();
+                    Object[] arguments = invocation.getArguments();
+                    event.operation = "UserService." + invocation.getMethod().getName();
+                    event.userId = arguments.length > 0 && arguments[0] instanceof Long id ? id : userId(result);
+                    event.outcome = outcome != null ? outcome : outcome(result);
+                    event.sqlStatements = counts.statements();
+                    event.sqlRows = counts.rows();
+                    event.dbTime = counts.jdbcNanos();
+                    event.commit();
+                }
+            }
+        });
+    }
+
+    private static long userId(Object result) {
+        if (result instanceof Optional<?> optional) {
+            result = optional.orElse(null);
+        }
+        return result instanceof User user && user.getId() != null ? user.getId() : 0;
+    }
+
+    private static String outcome(Object result) {
+        boolean missing = Boolean.FALSE.equals(result) || (result instanceof Optional<?> optional && optional.isEmpty());
+        return missing ? "not-found" : "ok";
+    }
+}
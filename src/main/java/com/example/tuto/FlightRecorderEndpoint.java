@@ -0,0 +1,67 @@
+package com.example.tuto;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/jfr?minutes=N} downloads the last N minutes of the
+ * {@link ContinuousRecording}, or everything it still retains without
+ * {@code minutes}. The dump is a temporary file deleted once sent.
+ *
+ * Not exposed over HTTP by default: a dump holds the JVM's environment
+ * variables and system properties (see application.properties).
+ */
+@WebEndpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private final ContinuousRecording recording;
+
+    public FlightRecorderEndpoint(ContinuousRecording recording) {
+        this.recording = recording;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) {
+        if (minutes != null && minutes <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!recording.isRunning()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Path dump = recording.dump(minutes != null ? Duration.ofMinutes(minutes) : null);
+        return new WebEndpointResponse<>(new TemporaryFileResource(dump));
+    }
+
+    /** Deletes the file when the response has finished reading it */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path path) {
+            super(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tuto;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Emits a {@link UserRequestEvent} for every /api/users request while the
+ * event is enabled in a running recording; otherwise it costs one check.
+ * Registered by {@link FlightRecorderConfiguration}.
+ */
+class FlightRecorderFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        UserRequestEvent event = new UserRequestEvent();
+        if (!event.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String outcome = null;
+        SqlStatistics.Scope scope = SqlStatistics.open(false);
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            scope.close();
+            if (event.shouldCommit()) {
+                SqlCounts counts = scope.counts();
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = request.getMethod();
+                event.route = route != null ? route.toString() : request.getRequestURI();
+                event.userId = pathId(request);
+                event.status = response.getStatus();
+                event.outcome = outcome != null ? outcome : outcome(response.getStatus());
+                event.sqlStatements = counts.statements();
+                event.sqlRows = counts.rows();
+                event.dbTime = counts.jdbcNanos();
+                event.commit();
+            }
+        }
+    }
+
+    private static long pathId(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("id") instanceof String id) {
+            try {
+                return Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "server-error";
+        }
+        return status >= 400 ? "client-error" : "ok";
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.tuto;
+
+/**
+ * Strategy for assigning entity ids in the application before persist.
+ *
+ * Implementations must be thread-safe and return ids that are unique for
+ * the lifetime of the cluster and increase over time on a single node, so
+ * that ids can be used as keyset pagination cursors.
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
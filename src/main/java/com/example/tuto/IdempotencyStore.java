@@ -0,0 +1,139 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting store backing the {@code Idempotency-Key} header.
+ *
+ * The first request for a key runs the action and records its response;
+ * requests with the same key that arrive while it is running wait for that
+ * result instead of running the action again, and later ones replay it until
+ * the entry expires. A key reused with a different request body is rejected
+ * with 422. Failed actions (exceptions) are not remembered, so the client can
+ * retry them.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private record StoredResponse(HttpStatusCode status, Object body) {}
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private record QueuedKey(String key, Entry entry) {}
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Completed entries in completion order, which is also expiry order. */
+    private final ConcurrentLinkedQueue<QueuedKey> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    @Autowired
+    public IdempotencyStore(@Value("${tuto.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${tuto.idempotency.max-entries:10000}") int maxEntries) {
+        this(ttl, maxEntries, System::currentTimeMillis);
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code action} at most once per key and fingerprint while the
+     * entry is retained, returning the recorded response to every caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        while (true) {
+            Entry candidate = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, candidate);
+
+            if (existing == null) {
+                return (ResponseEntity<T>) runAndRecord(key, candidate, action);
+            }
+            if (existing.expiresAt <= clock.getAsLong()) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!Objects.equals(existing.fingerprint, fingerprint)) {
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+            }
+            try {
+                StoredResponse stored = existing.response.join();
+                return (ResponseEntity<T>) ResponseEntity.status(stored.status())
+                        .header(REPLAYED_HEADER, "true")
+                        .body(stored.body());
+            } catch (CompletionException e) {
+                // The original attempt failed and was forgotten; compete to run it again
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> runAndRecord(String key, Entry entry, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError()) {
+            entries.remove(key, entry);
+            entry.response.completeExceptionally(new IllegalStateException("Not retained: " + response.getStatusCode()));
+            return response;
+        }
+
+        entry.expiresAt = clock.getAsLong() + ttlMillis;
+        entry.response.complete(new StoredResponse(response.getStatusCode(), response.getBody()));
+        completed.add(new QueuedKey(key, entry));
+        completedCount.incrementAndGet();
+        evict();
+        return response;
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        QueuedKey head;
+        while ((head = completed.peek()) != null
+                && (head.entry().expiresAt <= now || completedCount.get() > maxEntries)) {
+            if (completed.remove(head)) {
+                completedCount.decrementAndGet();
+                entries.remove(head.key(), head.entry());
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.tuto;
+
+/**
+ * Outcome of a {@link UserImporter} run.
+ *
+ * @param imported    rows inserted into the users table
+ * @param rejected    rows that failed parsing or validation
+ * @param rejectsFile name of the file the rejected rows were written to,
+ *                    without the server's directory, or {@code null} when
+ *                    there were none
+ * @param millis      wall-clock duration of the import
+ */
+public record ImportResult(long imported, long rejected, String rejectsFile, long millis) {
+}
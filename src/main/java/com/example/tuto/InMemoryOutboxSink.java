@@ -0,0 +1,42 @@
+package com.example.tuto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox sink that keeps the most recently relayed events in memory, for
+ * tests and local runs. Only the last {@code capacity} events are kept, so
+ * it can stay enabled in a long-running process.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final ArrayDeque<OutboxEvent> published = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (published.size() == capacity) {
+                published.removeFirst();
+            }
+            published.addLast(event);
+        }
+    }
+
+    /** Oldest first */
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
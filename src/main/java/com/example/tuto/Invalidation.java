@@ -0,0 +1,17 @@
+package com.example.tuto;
+
+/**
+ * Cache invalidation broadcast by a {@link UserNearCache} after a user
+ * change commits.
+ *
+ * @param origin       node id of the sender ({@code tuto.id.node-id})
+ * @param userId       the changed user, or {@link #ALL_USERS}
+ * @param version      entries older than this version are stale;
+ *                     {@link Long#MAX_VALUE} for deletions
+ * @param sentAtMicros sender wall clock, for the invalidation lag metric
+ */
+public record Invalidation(int origin, long userId, long version, long sentAtMicros) {
+
+    /** userId of an invalidation that drops every cached user */
+    public static final long ALL_USERS = -1;
+}
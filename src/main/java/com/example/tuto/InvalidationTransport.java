@@ -0,0 +1,20 @@
+package com.example.tuto;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link Invalidation}s between the nodes of a cluster.
+ *
+ * Delivery is best effort: a lost message leaves a stale entry until its
+ * time-to-live expires. Listeners may also receive the node's own messages.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    void publish(Invalidation invalidation);
+
+    void subscribe(Consumer<Invalidation> listener);
+
+    @Override
+    default void close() {
+    }
+}
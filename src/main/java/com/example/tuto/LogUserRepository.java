@@ -0,0 +1,644 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * {@link UserRepository} over an append-only log file instead of the
+ * database, enabled with {@code tuto.users.store=log}.
+ *
+ * Every save appends the whole user, every delete a tombstone, to
+ * {@code users.log} in {@code tuto.users.log.dir}. Memory holds only an
+ * index from id to the offset, length and version of the user's latest
+ * record; reads are one positional read. At startup the log is replayed
+ * into the index. An incomplete or corrupt record at the end, left by a
+ * crash during a write, is cut off. Each record is framed as
+ * {@code length, CRC32C, type, id, [version, name, email]}.
+ *
+ * Writes return once their record is on disk. Writers waiting at the same
+ * time share one fsync (group commit): the first becomes the leader and
+ * syncs everything appended so far, the others wait for it and sync again
+ * only if their record came later. {@code tuto.users.log.fsync=false}
+ * leaves flushing to the operating system, so a crash can lose recent
+ * writes. A write is visible to readers before it is durable. The records
+ * of one transaction are appended together and share a sync, but are not
+ * framed as a unit: a crash while they are written can keep some of them.
+ *
+ * In the background the log is rewritten without superseded records and
+ * tombstones once they outweigh the live ones. The copy runs concurrently
+ * with reads and writes; writes that arrived meanwhile are copied over
+ * before the new file replaces the old one with an atomic rename.
+ *
+ * As with H2's file, interrupting a thread while it reads or writes the log
+ * closes the file, and the store fails until restarted.
+ *
+ * Metrics: {@code users.log.bytes{state=live|dead}} and
+ * {@code users.log.commit.records} (records made durable per fsync). See
+ * {@link UserStoreRepository} for how this differs from the JPA repository.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "tuto.users.store", havingValue = "log")
+public class LogUserRepository extends UserStoreRepository implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LogUserRepository.class);
+
+    static final String LOG_FILE = "users.log";
+    static final String COMPACTION_FILE = "users.log.compacting";
+
+    /** Length of the body, then its CRC32C */
+    static final int HEADER_BYTES = 4 + 4;
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte CLEAR = 3;
+    private static final int NULL_TEXT = -1;
+
+    /** Where the latest record of a user is */
+    private record Location(long offset, int length, long version) {}
+
+    private final Path directory;
+    private final boolean fsync;
+    private final long compactionMinBytes;
+    private final ScheduledExecutorService compactor;
+    private final DistributionSummary commitRecords;
+
+    /** Guards the index and the end of the log; the channel is only replaced under the write lock */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object compaction = new Object();
+    private volatile FileChannel channel;
+    private Map<Long, Location> index = new HashMap<>();
+    private long end;
+    private long liveBytes;
+
+    /** Bytes and records appended since startup; only grow, unlike offsets, which compaction resets */
+    private volatile long appended;
+    private volatile long appendedRecords;
+
+    /** Group commit state, guarded by itself */
+    private final Object sync = new Object();
+    private long durable;
+    private long durableRecords;
+    private boolean syncing;
+
+    public LogUserRepository(@Value("${tuto.users.log.dir:./data/users-log}") Path directory,
+                             @Value("${tuto.users.log.fsync:true}") boolean fsync,
+                             @Value("${tuto.users.log.compaction-interval:30s}") Duration compactionInterval,
+                             @Value("${tuto.users.log.compaction-min-size:1MB}") DataSize compactionMinSize,
+                             MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.compactionMinBytes = compactionMinSize.toBytes();
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(COMPACTION_FILE));
+            channel = FileChannel.open(directory.resolve(LOG_FILE), CREATE, READ, WRITE);
+            long started = System.nanoTime();
+            recover();
+            log.info("Recovered {} users from {} KB of log in {} ms", index.size(), end / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the user log in " + directory, e);
+        }
+
+        Gauge.builder("users.log.bytes", this, repository -> repository.bytes(true))
+            .tag("state", "live")
+            .description("Bytes of the user log holding current users")
+            .register(meterRegistry);
+        Gauge.builder("users.log.bytes", this, repository -> repository.bytes(false))
+            .tag("state", "dead")
+            .description("Bytes of the user log that compaction would drop")
+            .register(meterRegistry);
+        this.commitRecords = DistributionSummary.builder("users.log.commit.records")
+            .description("Records made durable by one fsync")
+            .register(meterRegistry);
+
+        if (compactionInterval.isZero()) {
+            this.compactor = null;
+        } else {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("user-log-compactor").daemon().factory());
+            compactor.scheduleWithFixedDelay(this::compactIfWorthwhile,
+                compactionInterval.toNanos(), compactionInterval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // ========== Recovery ==========
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        // Not closed: that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16));
+        CRC32C crc = new CRC32C();
+        while (position + HEADER_BYTES <= size) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 1 || length > size - position - HEADER_BYTES) {
+                break;
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            liveBytes += apply(ByteBuffer.wrap(body), position, HEADER_BYTES + length, index);
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            log.warn("Cutting off {} bytes of incomplete or corrupt user log at offset {}", size - position, position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        end = position;
+    }
+
+    /**
+     * Applies the record whose body is {@code body} and which starts at
+     * {@code offset} to {@code index}
+     *
+     * @return the change in live bytes
+     */
+    private static long apply(ByteBuffer body, long offset, int length, Map<Long, Location> index) {
+        byte type = body.get();
+        switch (type) {
+            case PUT -> {
+                long id = body.getLong();
+                Location previous = index.put(id, new Location(offset, length, body.getLong()));
+                return length - (previous == null ? 0 : previous.length());
+            }
+            case DELETE -> {
+                Location previous = index.remove(body.getLong());
+                return previous == null ? 0 : -previous.length();
+            }
+            case CLEAR -> {
+                long live = index.values().stream().mapToLong(Location::length).sum();
+                index.clear();
+                return -live;
+            }
+            default -> throw new IllegalStateException("Unknown user log record type " + type + " at offset " + offset);
+        }
+    }
+
+    // ========== Reads ==========
+
+    @Override
+    protected User load(long id) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(id);
+            return location == null ? null : decode(read(channel, location.offset(), location.length()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read user " + id + " from the log", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected List<User> loadAll() {
+        lock.readLock().lock();
+        try {
+            List<Location> locations = new ArrayList<>(index.values());
+            locations.sort(Comparator.comparingLong(Location::offset));
+            List<User> users = new ArrayList<>(locations.size());
+            for (Location location : locations) {
+                users.add(decode(read(channel, location.offset(), location.length())));
+            }
+            return users;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read users from the log", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected long version(long id) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(id);
+            return location == null ? ABSENT : location.version();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== Writes ==========
+
+    @Override
+    protected void commit(List<Write> writes) {
+        long target;
+        lock.writeLock().lock();
+        try {
+            for (Write write : writes) {
+                Location current = index.get(write.id());
+                check(write, current == null ? ABSENT : current.version());
+            }
+            long before = appended;
+            for (Write write : writes) {
+                Location current = index.get(write.id());
+                User user = write.user();
+                if (user != null) {
+                    put(write.id(), user.getVersion(), encode(user.getName()), encode(user.getEmail()), current);
+                } else if (current != null) {
+                    delete(write.id(), current);
+                }
+            }
+            if (appended == before) {
+                return;
+            }
+            target = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to the user log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(target);
+    }
+
+    @Override
+    protected void eraseAll() {
+        long target;
+        lock.writeLock().lock();
+        try {
+            append(frame(ByteBuffer.allocate(1).put(CLEAR)));
+            index.clear();
+            liveBytes = 0;
+            target = appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to the user log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(target);
+    }
+
+    /** Under the write lock; {@code current} is the index entry being replaced, or null */
+    private void put(long id, long version, byte[] name, byte[] email, Location current) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 8 + 4 + length(name) + 4 + length(email))
+            .put(PUT).putLong(id).putLong(version);
+        putText(body, name);
+        putText(body, email);
+        ByteBuffer record = frame(body);
+        int length = record.remaining();
+        index.put(id, new Location(append(record), length, version));
+        liveBytes += length - (current == null ? 0 : current.length());
+    }
+
+    /** Under the write lock; {@code current} is the index entry of {@code id} */
+    private void delete(long id, Location current) throws IOException {
+        append(frame(ByteBuffer.allocate(1 + 8).put(DELETE).putLong(id)));
+        index.remove(id);
+        liveBytes -= current.length();
+    }
+
+    /** Under the write lock; returns the record's offset */
+    private long append(ByteBuffer record) throws IOException {
+        long offset = end;
+        int length = record.remaining();
+        write(channel, record, offset);
+        end += length;
+        appended += length;
+        appendedRecords++;
+        return offset;
+    }
+
+    // ========== Group commit ==========
+
+    /**
+     * Returns once the first {@code target} appended bytes are on disk. An
+     * interrupt is kept for later: the record is in the log already, and
+     * forcing an interruptible channel with the flag set would close it.
+     */
+    private void awaitDurable(long target) {
+        if (!fsync) {
+            return;
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                synchronized (sync) {
+                    while (durable < target && syncing) {
+                        interrupted |= awaitSync();
+                    }
+                    if (durable >= target) {
+                        return;
+                    }
+                    syncing = true;
+                }
+                syncAsLeader();
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Syncs everything appended so far on behalf of all waiting writers */
+    private void syncAsLeader() {
+        long upTo = appended;
+        long records = appendedRecords;
+        boolean forced = false;
+        try {
+            channel.force(false);
+            forced = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync the user log", e);
+        } finally {
+            synchronized (sync) {
+                if (forced && upTo > durable) {
+                    commitRecords.record(records - durableRecords);
+                    durable = upTo;
+                    durableRecords = records;
+                }
+                syncing = false;
+                sync.notifyAll();
+            }
+        }
+    }
+
+    /** @return whether the wait was interrupted */
+    private boolean awaitSync() {
+        try {
+            sync.wait();
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+
+    // ========== Compaction ==========
+
+    private long bytes(boolean live) {
+        lock.readLock().lock();
+        try {
+            return live ? liveBytes : end - liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfWorthwhile() {
+        try {
+            long live = bytes(true);
+            long dead = bytes(false);
+            if (live + dead >= compactionMinBytes && dead > live) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            log.warn("User log compaction failed", e);
+        }
+    }
+
+    /** Rewrites the log with only the latest record of each current user */
+    public void compact() {
+        synchronized (compaction) {
+            try {
+                rewrite();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot compact the user log", e);
+            }
+        }
+    }
+
+    private void rewrite() throws IOException {
+        long started = System.nanoTime();
+        List<Location> live;
+        long snapshotEnd;
+        long sizeBefore;
+        FileChannel source;
+        lock.readLock().lock();
+        try {
+            live = new ArrayList<>(index.values());
+            snapshotEnd = end;
+            source = channel;
+        } finally {
+            lock.readLock().unlock();
+        }
+        live.sort(Comparator.comparingLong(Location::offset));
+
+        Path target = directory.resolve(COMPACTION_FILE);
+        FileChannel output = FileChannel.open(target, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+        Map<Long, Location> compacted = new HashMap<>(Math.max(16, live.size() * 4 / 3));
+        boolean replaced = false;
+        try {
+            long position = 0;
+            for (Location location : live) {
+                ByteBuffer record = read(source, location.offset(), location.length());
+                long id = record.getLong(HEADER_BYTES + 1);
+                write(output, record, position);
+                compacted.put(id, new Location(position, location.length(), location.version()));
+                position += location.length();
+            }
+            long compactedLive = position;
+
+            lock.writeLock().lock();
+            try {
+                // Writes that arrived during the copy, in order
+                for (long offset = snapshotEnd; offset < end; ) {
+                    int length = HEADER_BYTES + read(channel, offset, HEADER_BYTES).getInt(0);
+                    ByteBuffer record = read(channel, offset, length);
+                    write(output, record.duplicate(), position);
+                    compactedLive += apply(record.position(HEADER_BYTES), position, length, compacted);
+                    position += length;
+                    offset += length;
+                }
+                sizeBefore = end;
+                claimSync();
+                try {
+                    output.force(true);
+                    Files.move(target, directory.resolve(LOG_FILE), StandardCopyOption.ATOMIC_MOVE);
+                    syncDirectory();
+                    channel = output;
+                    index = compacted;
+                    end = position;
+                    liveBytes = compactedLive;
+                    replaced = true;
+                } finally {
+                    releaseSync(replaced);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Compacted the user log from {} KB to {} KB in {} ms", sizeBefore / 1024, position / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            if (replaced) {
+                source.close();
+            } else {
+                output.close();
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    /** Keeps group commit off the channel while it is replaced */
+    private void claimSync() {
+        boolean interrupted = false;
+        synchronized (sync) {
+            while (syncing) {
+                interrupted |= awaitSync();
+            }
+            syncing = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Everything appended so far is in the new, synced file if {@code replaced} */
+    private void releaseSync(boolean replaced) {
+        synchronized (sync) {
+            if (replaced) {
+                durable = appended;
+                durableRecords = appendedRecords;
+            }
+            syncing = false;
+            sync.notifyAll();
+        }
+    }
+
+    /** Makes the rename durable; not every platform can open a directory */
+    private void syncDirectory() {
+        try (FileChannel directoryChannel = FileChannel.open(directory, READ)) {
+            directoryChannel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Cannot sync directory {}: {}", directory, e.toString());
+        }
+    }
+
+    /** Stops compaction and closes the log; waiting writers have already been synced */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (compactor != null) {
+            // Not interrupted: that would close the channel it is copying from
+            compactor.shutdown();
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        lock.writeLock().lock();
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close the user log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== Records ==========
+
+    private static ByteBuffer frame(ByteBuffer body) {
+        body.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return ByteBuffer.allocate(HEADER_BYTES + body.remaining())
+            .putInt(body.remaining())
+            .putInt((int) crc.getValue())
+            .put(body)
+            .flip();
+    }
+
+    private static User decode(ByteBuffer record) {
+        record.position(HEADER_BYTES + 1);
+        long id = record.getLong();
+        long version = record.getLong();
+        String name = getText(record);
+        String email = getText(record);
+        return new User(id, name, email, version);
+    }
+
+    private static byte[] encode(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] text) {
+        return text == null ? 0 : text.length;
+    }
+
+    private static void putText(ByteBuffer body, byte[] text) {
+        if (text == null) {
+            body.putInt(NULL_TEXT);
+        } else {
+            body.putInt(text.length).put(text);
+        }
+    }
+
+    private static String getText(ByteBuffer record) {
+        int length = record.getInt();
+        if (length == NULL_TEXT) {
+            return null;
+        }
+        String text = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return text;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("User log ends before offset " + (offset + length));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
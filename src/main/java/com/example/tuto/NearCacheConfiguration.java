@@ -0,0 +1,54 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enables {@link UserNearCache} unless {@code tuto.near-cache.enabled=false}.
+ *
+ * {@code tuto.near-cache.transport} selects how invalidations reach the
+ * other nodes: {@code loopback} (default, a single node) or {@code udp},
+ * which listens on {@code tuto.near-cache.udp.port} and sends to every
+ * {@code host:port} in {@code tuto.near-cache.udp.peers}, accepting
+ * invalidations only from those addresses.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tuto.near-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class NearCacheConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "tuto.near-cache.transport", havingValue = "loopback", matchIfMissing = true)
+    public LoopbackInvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tuto.near-cache.transport", havingValue = "udp")
+    public UdpInvalidationTransport udpInvalidationTransport(
+            @Value("${tuto.near-cache.udp.port:7711}") int port,
+            @Value("${tuto.near-cache.udp.peers:}") String peers) {
+        List<InetSocketAddress> addresses = Arrays.stream(peers.split(","))
+            .map(String::trim)
+            .filter(peer -> !peer.isEmpty())
+            .map(peer -> new InetSocketAddress(peer.substring(0, peer.lastIndexOf(':')),
+                Integer.parseInt(peer.substring(peer.lastIndexOf(':') + 1))))
+            .toList();
+        return new UdpInvalidationTransport(new InetSocketAddress(port), addresses);
+    }
+
+    @Bean
+    public UserNearCache userNearCache(InvalidationTransport transport, MeterRegistry meterRegistry,
+                                       @Value("${tuto.id.node-id:0}") int nodeId,
+                                       @Value("${tuto.near-cache.max-entries:10000}") int maxEntries,
+                                       @Value("${tuto.near-cache.ttl:5m}") Duration ttl) {
+        return new UserNearCache(nodeId, transport, meterRegistry, maxEntries, ttl);
+    }
+}
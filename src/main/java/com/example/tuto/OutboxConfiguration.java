@@ -0,0 +1,42 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+
+/**
+ * Selects the outbox sink with {@code tuto.outbox.sink}: {@code memory}
+ * (default, the last {@code tuto.outbox.memory.capacity} events) or
+ * {@code file}. Any other value disables both, so a custom
+ * {@link OutboxSink} bean can be provided instead.
+ *
+ * The relay is excluded from lazy initialization: it has no injection
+ * point that would create it, so under {@code spring.main.lazy-initialization}
+ * its schedule would never be registered.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerOutboxRelay() {
+        return LazyInitializationExcludeFilter.forBeanTypes(OutboxRelay.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tuto.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public InMemoryOutboxSink inMemoryOutboxSink(@Value("${tuto.outbox.memory.capacity:1000}") int capacity) {
+        return new InMemoryOutboxSink(capacity);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tuto.outbox.sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink(@Value("${tuto.outbox.file:outbox/user-events.ndjson}") Path file) {
+        return new FileOutboxSink(file);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tuto;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Row of the transactional outbox: a user change waiting to be relayed to
+ * other systems. Written in the same transaction as the change itself.
+ *
+ * Ids come from the {@link IdGenerator}, so they are time-ordered and the
+ * relay can drain the table in id order.
+ */
+@Entity
+@Table(name = "user_outbox")
+public class OutboxEvent implements Persistable<Long> {
+    @Id
+    private Long id;
+    private Long aggregateId;
+    private String eventType;
+    @Column(length = 4000)
+    private String payload;
+    private Instant createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // JPA requires a no-args constructor
+    protected OutboxEvent() {}
+
+    public OutboxEvent(Long id, Long aggregateId, String eventType, String payload, Instant createdAt) {
+        this.id = id;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{id=" + id + ", aggregateId=" + aggregateId + ", eventType='" + eventType + "'}";
+    }
+}
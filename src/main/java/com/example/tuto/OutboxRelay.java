@@ -0,0 +1,117 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background relay that drains the outbox to the configured {@link OutboxSink}.
+ *
+ * Runs on the scheduler thread, never on a request thread: each poll reads
+ * up to {@code batch-size} events in id order, publishes them, deletes them,
+ * and repeats while full batches keep coming.
+ *
+ * Metrics: {@code outbox.relay.events} (throughput), {@code outbox.relay.batch.size},
+ * {@code outbox.relay.publish} (sink latency), {@code outbox.relay.failures}
+ * and {@code outbox.relay.lag} (age of the oldest unrelayed event, seconds).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Counter relayedEvents;
+    private final Counter failures;
+    private final DistributionSummary batchSizes;
+    private final Timer publishTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository, OutboxSink sink,
+                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                       @Value("${tuto.outbox.batch-size:100}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        this.relayedEvents = Counter.builder("outbox.relay.events")
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Failed relay attempts")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Events per relayed batch")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("outbox.relay.publish")
+                .description("Time spent publishing a batch to the sink")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, millis -> millis.get() / 1000.0)
+                .description("Age of the oldest outbox event not yet relayed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${tuto.outbox.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            relayPending();
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Outbox relay failed, will retry on the next poll", e);
+        }
+    }
+
+    /**
+     * Relays everything currently in the outbox.
+     *
+     * @return number of events relayed
+     */
+    public int relayPending() throws Exception {
+        int total = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxRepository.findByOrderByIdAsc(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+            publishTimer.recordCallable(() -> {
+                sink.publish(batch);
+                return null;
+            });
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllByIdInBatch(ids));
+
+            relayedEvents.increment(batch.size());
+            batchSizes.record(batch.size());
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (total == 0 || outboxRepository.findFirstByOrderByIdAsc().isEmpty()) {
+            lagMillis.set(0);
+        }
+        return total;
+    }
+}
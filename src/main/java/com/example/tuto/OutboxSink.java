@@ -0,0 +1,14 @@
+package com.example.tuto;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events (message broker, webhook, file...).
+ *
+ * Delivery is at-least-once: a batch is published again if the relay stops
+ * before deleting it, so receivers should deduplicate on the event id.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> batch) throws Exception;
+}
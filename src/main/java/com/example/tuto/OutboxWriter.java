@@ -0,0 +1,42 @@
+package com.example.tuto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records every {@link UserChangeEvent} in the outbox table.
+ *
+ * Runs synchronously inside the transaction of the {@link UserService} call
+ * that published the event, so the outbox row commits or rolls back
+ * together with the user change.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxRepository outboxRepository, IdGenerator idGenerator, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserChange(UserChangeEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event, e);
+        }
+        outboxRepository.save(new OutboxEvent(
+                idGenerator.nextId(), event.userId(), event.type().name(), payload, event.occurredAt()));
+    }
+}
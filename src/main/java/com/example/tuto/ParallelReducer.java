@@ -0,0 +1,212 @@
+package com.example.tuto;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Companion to {@link Calculator} that reduces large datasets in parallel
+ * with fork-join splitting.
+ *
+ * Inputs are cut into chunks of {@code chunkSize} elements at fixed
+ * positions, and partial results are combined in index order with exact
+ * arithmetic, so the result is the same for every pool size and schedule.
+ *
+ * Files are read as raw 32-bit integers (little-endian by default) through
+ * memory mapping in windows of at most 1 GiB, which allows files larger
+ * than 2 GiB.
+ *
+ * The exact product grows by up to 32 bits per element once it leaves the
+ * long range, so for large inputs without zeros it dominates the run time;
+ * reducers created with {@code product = false} skip it.
+ */
+public class ParallelReducer {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final boolean product;
+
+    public ParallelReducer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * @param product whether to compute the exact product; when false,
+     *                {@link ReductionResult#product()} is null
+     */
+    public ParallelReducer(ForkJoinPool pool, int chunkSize, boolean product) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.product = product;
+    }
+
+    public ReductionResult reduce(int[] values) {
+        return pool.invoke(new Task(new IntArraySource(values), 0, values.length)).toResult(product);
+    }
+
+    public ReductionResult reduce(long[] values) {
+        return pool.invoke(new Task(new LongArraySource(values), 0, values.length)).toResult(product);
+    }
+
+    public ReductionResult reduce(Path file) throws IOException {
+        return reduce(file, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reduces a file of raw 32-bit integers.
+     *
+     * @throws IllegalArgumentException if the file size is not a multiple of 4
+     */
+    public ReductionResult reduce(Path file, ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Integer.BYTES != 0) {
+                throw new IllegalArgumentException("File size is not a multiple of 4 bytes: " + size);
+            }
+            List<IntBuffer> windows = new ArrayList<>();
+            for (long position = 0; position < size; position += MAX_WINDOW_BYTES) {
+                long length = Math.min(MAX_WINDOW_BYTES, size - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                windows.add(mapped.order(order).asIntBuffer());
+            }
+            return pool.invoke(new Task(new MappedSource(windows), 0, size / Integer.BYTES)).toResult(product);
+        }
+    }
+
+    /** Random access to the input, by element index. */
+    private interface Source {
+        void accumulate(long from, long to, Partial partial, boolean product);
+    }
+
+    private record IntArraySource(int[] values) implements Source {
+        @Override
+        public void accumulate(long from, long to, Partial partial, boolean product) {
+            // Fewer than 2^32 ints per chunk: a plain long sum cannot overflow
+            long sum = 0;
+            long evens = 0;
+            for (int i = (int) from; i < to; i++) {
+                int value = values[i];
+                sum += value;
+                evens += ~value & 1;
+            }
+            partial.sum.add(sum);
+            partial.evenCount += evens;
+            if (product) {
+                for (int i = (int) from; i < to; i++) {
+                    partial.product.multiply(values[i]);
+                }
+            }
+        }
+    }
+
+    private record LongArraySource(long[] values) implements Source {
+        @Override
+        public void accumulate(long from, long to, Partial partial, boolean product) {
+            long evens = 0;
+            for (int i = (int) from; i < to; i++) {
+                long value = values[i];
+                partial.sum.add(value);
+                evens += ~value & 1;
+            }
+            partial.evenCount += evens;
+            if (product) {
+                for (int i = (int) from; i < to; i++) {
+                    partial.product.multiply(values[i]);
+                }
+            }
+        }
+    }
+
+    private record MappedSource(List<IntBuffer> windows) implements Source {
+        private static final long INTS_PER_WINDOW = MAX_WINDOW_BYTES / Integer.BYTES;
+
+        @Override
+        public void accumulate(long from, long to, Partial partial, boolean product) {
+            long sum = 0;
+            long evens = 0;
+            for (long index = from; index < to; index++) {
+                int value = valueAt(index);
+                sum += value;
+                evens += ~value & 1;
+            }
+            partial.sum.add(sum);
+            partial.evenCount += evens;
+            if (product) {
+                for (long index = from; index < to; index++) {
+                    partial.product.multiply(valueAt(index));
+                }
+            }
+        }
+
+        private int valueAt(long index) {
+            return windows.get((int) (index / INTS_PER_WINDOW)).get((int) (index % INTS_PER_WINDOW));
+        }
+    }
+
+    private static final class Partial {
+        long count;
+        long evenCount;
+        final ExactAccumulator sum = ExactAccumulator.ofSum();
+        final ExactAccumulator product = ExactAccumulator.ofProduct();
+
+        Partial combine(Partial right, boolean withProduct) {
+            count += right.count;
+            evenCount += right.evenCount;
+            sum.add(right.sum);
+            if (withProduct) {
+                product.multiply(right.product);
+            }
+            return this;
+        }
+
+        ReductionResult toResult(boolean withProduct) {
+            return new ReductionResult(count, sum.toBigInteger(),
+                    withProduct ? product.toBigInteger() : null, evenCount);
+        }
+    }
+
+    private final class Task extends RecursiveTask<Partial> {
+        private final Source source;
+        private final long from;
+        private final long to;
+
+        Task(Source source, long from, long to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            long length = to - from;
+            if (length <= chunkSize) {
+                Partial partial = new Partial();
+                partial.count = length;
+                source.accumulate(from, to, partial, product);
+                return partial;
+            }
+            // Split on a chunk boundary so chunk positions never depend on scheduling
+            long chunks = (length + chunkSize - 1) / chunkSize;
+            long middle = from + (chunks / 2) * chunkSize;
+            Task left = new Task(source, from, middle);
+            Task right = new Task(source, middle, to);
+            right.fork();
+            Partial leftResult = left.compute();
+            return leftResult.combine(right.join(), product);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Beans of the {@code persistent} profile (see
+ * application-persistent.properties), keyed on {@code tuto.h2.backup-dir}
+ * so they can also be enabled for a file database set up by hand.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tuto.h2.backup-dir")
+public class PersistentDatabaseConfiguration {
+
+    @Bean
+    public DatabaseBackupEndpoint databaseBackupEndpoint(JdbcTemplate jdbcTemplate,
+                                                         @Value("${tuto.h2.backup-dir}") Path backupDirectory) {
+        return new DatabaseBackupEndpoint(jdbcTemplate, backupDirectory);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.tuto;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Aggregates computed by {@link ParallelReducer}: exact sum and product,
+ * element count and number of even elements. The product is null when the
+ * reducer was configured to skip it.
+ */
+public record ReductionResult(long count, BigInteger sum, BigInteger product, long evenCount) {
+
+    /** Arithmetic mean rounded to {@link MathContext#DECIMAL64}; zero for an empty input. */
+    public BigDecimal mean() {
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        return new BigDecimal(sum).divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+    }
+}
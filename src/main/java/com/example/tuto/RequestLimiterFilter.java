@@ -0,0 +1,214 @@
+package com.example.tuto;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client rate limiting and load shedding for /api/users.
+ *
+ * Every request is first charged against a {@link TokenBucket} for its
+ * client and {@link EndpointClass}; an empty bucket answers 429. Admitted
+ * requests then need a slot from the shared {@link AdaptiveConcurrencyLimiter}
+ * and are shed with 503 when the service is already saturated. Both answers
+ * carry a {@code Retry-After} header. Bulk imports only have a bucket: they
+ * run for seconds to minutes and would otherwise teach the limiter that the
+ * service is overloaded.
+ *
+ * Clients are told apart by remote address. The {@code X-Client-Id} header
+ * is only honoured on requests from {@code tuto.limits.trusted-proxies}, so
+ * a client cannot reset its buckets by sending a new id each time. At most
+ * {@code max-tracked-clients} buckets are kept: once full, idle buckets are
+ * swept at most once per second, and clients that still find no room share
+ * one overflow bucket per endpoint class.
+ */
+@Component
+public class RequestLimiterFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Cost classes of the user API, each with its own bucket per client. */
+    enum EndpointClass {
+        /** Single-row lookups such as GET /api/users/{id} */
+        READ,
+        /** Inserts, updates and deletes */
+        WRITE,
+        /** Multi-row reads: GET /api/users and user lookups by id list */
+        SCAN,
+        /** Bulk loads through POST /api/users/import */
+        IMPORT
+    }
+
+    private record BucketKey(String client, EndpointClass endpointClass) {}
+
+    record BucketConfig(double ratePerSecond, int burst) {}
+
+    private final boolean enabled;
+    private final Map<EndpointClass, BucketConfig> bucketConfigs = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<EndpointClass, TokenBucket> overflowBuckets = new EnumMap<>(EndpointClass.class);
+    private final AtomicLong lastSweep;
+    private final int maxTrackedClients;
+    private final Set<String> trustedProxies;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final double scanShare;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RequestLimiterFilter(
+            @Value("${tuto.limits.enabled:true}") boolean enabled,
+            @Value("${tuto.limits.read.rate-per-second:200}") double readRate,
+            @Value("${tuto.limits.read.burst:400}") int readBurst,
+            @Value("${tuto.limits.write.rate-per-second:50}") double writeRate,
+            @Value("${tuto.limits.write.burst:100}") int writeBurst,
+            @Value("${tuto.limits.scan.rate-per-second:2}") double scanRate,
+            @Value("${tuto.limits.scan.burst:10}") int scanBurst,
+            @Value("${tuto.limits.import.rate-per-second:0.1}") double importRate,
+            @Value("${tuto.limits.import.burst:2}") int importBurst,
+            @Value("${tuto.limits.max-tracked-clients:10000}") int maxTrackedClients,
+            @Value("${tuto.limits.trusted-proxies:}") List<String> trustedProxies,
+            @Value("${tuto.limits.concurrency.initial:10}") int initialConcurrency,
+            @Value("${tuto.limits.concurrency.min:2}") int minConcurrency,
+            @Value("${tuto.limits.concurrency.max:50}") int maxConcurrency,
+            @Value("${tuto.limits.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${tuto.limits.concurrency.scan-share:0.5}") double scanShare) {
+        this(enabled, Map.of(
+                        EndpointClass.READ, new BucketConfig(readRate, readBurst),
+                        EndpointClass.WRITE, new BucketConfig(writeRate, writeBurst),
+                        EndpointClass.SCAN, new BucketConfig(scanRate, scanBurst),
+                        EndpointClass.IMPORT, new BucketConfig(importRate, importBurst)),
+                maxTrackedClients, Set.copyOf(trustedProxies),
+                new AdaptiveConcurrencyLimiter(initialConcurrency, minConcurrency, maxConcurrency,
+                        latencyTolerance, 1000),
+                scanShare, System::nanoTime);
+    }
+
+    RequestLimiterFilter(boolean enabled, Map<EndpointClass, BucketConfig> bucketConfigs,
+                         int maxTrackedClients, Set<String> trustedProxies,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         double scanShare, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.bucketConfigs.putAll(bucketConfigs);
+        long now = nanoClock.getAsLong();
+        bucketConfigs.forEach((endpointClass, config) ->
+                overflowBuckets.put(endpointClass, new TokenBucket(config.ratePerSecond(), config.burst(), now)));
+        this.lastSweep = new AtomicLong(now - SWEEP_INTERVAL_NANOS);
+        this.maxTrackedClients = maxTrackedClients;
+        this.trustedProxies = trustedProxies;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.scanShare = scanShare;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        long now = nanoClock.getAsLong();
+
+        long waitNanos = bucketFor(clientKey(request), endpointClass, now).tryAcquire(now);
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            return;
+        }
+        if (endpointClass == EndpointClass.IMPORT) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        double share = endpointClass == EndpointClass.SCAN ? scanShare : 1.0;
+        if (!concurrencyLimiter.tryAcquire(share)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(nanoClock.getAsLong() - now);
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        String path = request.getRequestURI();
+        if (HttpMethod.POST.equals(method) && path.equals("/api/users/lookup")) {
+            return EndpointClass.SCAN;
+        }
+        if (HttpMethod.POST.equals(method) && path.equals("/api/users/import")) {
+            return EndpointClass.IMPORT;
+        }
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return EndpointClass.WRITE;
+        }
+        if (path.equals("/api/users") || path.equals("/api/users/")) {
+            return EndpointClass.SCAN;
+        }
+        return EndpointClass.READ;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : remoteAddress;
+    }
+
+    private TokenBucket bucketFor(String client, EndpointClass endpointClass, long now) {
+        BucketKey key = new BucketKey(client, endpointClass);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTrackedClients) {
+            sweep(now);
+            if (buckets.size() >= maxTrackedClients) {
+                return overflowBuckets.get(endpointClass);
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> {
+            BucketConfig config = bucketConfigs.get(endpointClass);
+            return new TokenBucket(config.ratePerSecond(), config.burst(), now);
+        });
+    }
+
+    /** Drops full buckets, at most once per interval so a full map does not cost a scan per request */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            // Full buckets are indistinguishable from new ones, so forgetting them is free
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.tuto;
+
+import java.util.Arrays;
+
+/**
+ * Portable per-element implementation of {@link BulkArithmetic}.
+ */
+class ScalarBulkArithmetic implements BulkArithmetic {
+
+    @Override
+    public void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = a[aOffset + i] + b[bOffset + i];
+        }
+    }
+
+    @Override
+    public void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = a[aOffset + i] - b[bOffset + i];
+        }
+    }
+
+    @Override
+    public void multiply(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = a[aOffset + i] * b[bOffset + i];
+        }
+    }
+
+    @Override
+    public void divide(int[] a, int aOffset, int[] b, int bOffset, double[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int divisor = b[bOffset + i];
+            if (divisor == 0) {
+                throw new IllegalArgumentException("Cannot divide by zero");
+            }
+            out[outOffset + i] = (double) a[aOffset + i] / divisor;
+        }
+    }
+
+    @Override
+    public void isEven(int[] values, int offset, int length, long[] bitmap) {
+        Arrays.fill(bitmap, 0, (length + 63) >>> 6, 0L);
+        for (int i = 0; i < length; i++) {
+            // Branch-free: random parity would defeat the branch predictor
+            bitmap[i >>> 6] |= (long) (~values[offset + i] & 1) << i;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tuto;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps this node's second-level cache (see {@link EhcacheRegionFactory})
+ * consistent with changes made on other nodes.
+ *
+ * The cache is local to the node. When a {@link UserNearCache} transport is
+ * configured, updates and deletes on other nodes evict the user here too,
+ * and deletes evict the cached counts. The eviction is excluded
+ * from lazy initialization, as nothing injects it.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerSecondLevelCacheEviction() {
+        return (name, definition, type) -> "remoteSecondLevelCacheEviction".equals(name);
+    }
+
+    @Bean
+    public SmartInitializingSingleton remoteSecondLevelCacheEviction(ObjectProvider<InvalidationTransport> transport,
+                                                                     EntityManagerFactory entityManagerFactory,
+                                                                     @Value("${tuto.id.node-id:0}") int nodeId) {
+        return () -> transport.ifAvailable(bus -> bus.subscribe(invalidation -> {
+            if (invalidation.origin() == nodeId) {
+                return;
+            }
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            if (invalidation.userId() == Invalidation.ALL_USERS) {
+                cache.evictEntityData(User.class);
+            } else {
+                cache.evictEntityData(User.class, invalidation.userId());
+            }
+            if (invalidation.version() == Long.MAX_VALUE) {
+                cache.evictQueryRegion(UserRepository.QUERY_CACHE_REGION);
+            }
+        }));
+    }
+}
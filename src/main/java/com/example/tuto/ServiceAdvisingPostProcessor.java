@@ -0,0 +1,29 @@
+package com.example.tuto;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Applies an interceptor to every public method declared by a service
+ * class. The advice goes ahead of the existing ones, such as the
+ * transaction advice, so it also covers the commit.
+ */
+class ServiceAdvisingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+    ServiceAdvisingPostProcessor(Class<?> serviceType, MethodInterceptor interceptor) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() == serviceType && Modifier.isPublic(method.getModifiers());
+            }
+        };
+        pointcut.setClassFilter(serviceType::isAssignableFrom);
+        this.advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        setBeforeExistingAdvisors(true);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, time-ordered 64-bit id generator (Snowflake layout).
+ *
+ * <pre>
+ *  0 | 41 bits millis since EPOCH | 10 bits node id | 12 bits sequence
+ * </pre>
+ *
+ * The last issued timestamp and sequence live in a single {@link AtomicLong}
+ * and are advanced with a CAS loop, so concurrent callers never block.
+ * When the sequence of the current millisecond is exhausted, or the wall
+ * clock moves backwards, the generator keeps counting on its own logical
+ * clock instead of waiting, which keeps ids strictly increasing per node.
+ */
+@Component
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /** Custom epoch (2025-01-01T00:00:00Z) so the 41-bit timestamp lasts ~69 years. */
+    static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    /** (timestamp << SEQUENCE_BITS) | sequence of the last issued id. */
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${tuto.id.node-id:0}") long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH;
+        while (true) {
+            long last = lastState.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond, clock skew or sequence overflow: the
+                // increment carries into the timestamp when the sequence wraps.
+                next = last + 1;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                return compose(next);
+            }
+        }
+    }
+
+    private long compose(long state) {
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    /** Milliseconds since the Unix epoch encoded in the given id. */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public static long nodeIdOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
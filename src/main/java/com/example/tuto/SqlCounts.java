@@ -0,0 +1,28 @@
+package com.example.tuto;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * JDBC work done inside one {@link SqlStatistics.Scope}.
+ *
+ * @param statements JDBC round trips: every execute call, a batch counts once
+ * @param rows       rows fetched through {@code ResultSet#next()}
+ * @param jdbcNanos  time spent inside the execute calls
+ * @param sql        statement texts in execution order; only kept when the
+ *                   scope was opened with {@code captureSql}
+ */
+public record SqlCounts(long statements, long rows, long jdbcNanos, List<String> sql) {
+
+    public static final SqlCounts NONE = new SqlCounts(0, 0, 0, List.of());
+
+    public double jdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statement(s), " + rows + " row(s), "
+                + String.format(Locale.ROOT, "%.3f", jdbcMillis()) + " ms";
+    }
+}
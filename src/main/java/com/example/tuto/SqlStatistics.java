@@ -0,0 +1,172 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-bound counters for the JDBC work of a unit of code.
+ *
+ * {@link SqlStatisticsDataSource} reports every statement and fetched row
+ * to the innermost open {@link Scope} of the calling thread; closing a scope
+ * adds its counts to the enclosing one, so a {@code UserService} call is
+ * also part of the HTTP request that made it. Work on a thread without an
+ * open scope (the outbox relay, change stream subscribers) is not counted.
+ *
+ * Metrics: {@code sql.statements} and {@code sql.rows} (per scope) and
+ * {@code sql.time} (JDBC time per scope), tagged with {@code scope}
+ * ({@code http}, {@code service} or {@code batch}) and {@code operation}.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /** Statement texts kept per capturing scope, to bound memory in N+1 loops */
+    static final int MAX_CAPTURED_SQL = 100;
+
+    private SqlStatistics() {
+    }
+
+    /**
+     * Opens a scope on the calling thread; close it on the same thread.
+     *
+     * @param captureSql keep the statement texts, for assertion messages;
+     *                   implied when the enclosing scope captures
+     */
+    public static Scope open(boolean captureSql) {
+        Scope scope = new Scope(CURRENT.get(), CURRENT.get(), captureSql);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Opens a scope on the calling thread whose counts are added to
+     * {@code parent}, a scope opened on another thread, when it closes. Lets
+     * work handed to another thread count towards the request that started
+     * it; counts arriving after the parent closed are dropped.
+     *
+     * @param parent the scope to add to, or {@code null} for a root scope
+     */
+    public static Scope openChildOf(Scope parent) {
+        Scope scope = new Scope(parent, CURRENT.get(), false);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** The innermost open scope of the calling thread, or {@code null} */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    static void statementExecuted(String sql, long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statementExecuted(sql, nanos);
+        }
+    }
+
+    static void rowFetched() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.rowFetched();
+        }
+    }
+
+    static void record(MeterRegistry registry, String scope, String operation, SqlCounts counts) {
+        DistributionSummary.builder("sql.statements")
+                .description("JDBC statements executed per scope")
+                .tags("scope", scope, "operation", operation)
+                .register(registry)
+                .record(counts.statements());
+        DistributionSummary.builder("sql.rows")
+                .description("Rows fetched per scope")
+                .tags("scope", scope, "operation", operation)
+                .register(registry)
+                .record(counts.rows());
+        Timer.builder("sql.time")
+                .description("Time spent in JDBC calls per scope")
+                .tags("scope", scope, "operation", operation)
+                .register(registry)
+                .record(counts.jdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counters of one unit of work. Only the thread that opened the scope
+     * records into it, but children on other threads may add to it (see
+     * {@link #openChildOf}), so updates hold the scope's lock.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        /** Scope of this thread to restore on close; the parent unless opened with {@link #openChildOf} */
+        private final Scope previous;
+        private final List<String> sql;
+        private long statements;
+        private long rows;
+        private long jdbcNanos;
+        private boolean closed;
+
+        private Scope(Scope parent, Scope previous, boolean captureSql) {
+            this.parent = parent;
+            this.previous = previous;
+            // Nested scopes capture too, or their statements would be missing from the parent's list
+            this.sql = captureSql || (parent != null && parent.sql != null) ? new ArrayList<>() : null;
+        }
+
+        private synchronized void statementExecuted(String statement, long nanos) {
+            statements++;
+            jdbcNanos += nanos;
+            if (sql != null && sql.size() < MAX_CAPTURED_SQL) {
+                sql.add(statement != null ? statement : "<batch>");
+            }
+        }
+
+        private synchronized void rowFetched() {
+            rows++;
+        }
+
+        private synchronized void add(Scope child) {
+            if (closed) {
+                return;
+            }
+            statements += child.statements;
+            rows += child.rows;
+            jdbcNanos += child.jdbcNanos;
+            if (sql != null && child.sql != null) {
+                int room = Math.max(0, MAX_CAPTURED_SQL - sql.size());
+                sql.addAll(child.sql.subList(0, Math.min(child.sql.size(), room)));
+            }
+        }
+
+        public synchronized SqlCounts counts() {
+            return new SqlCounts(statements, rows, jdbcNanos, sql != null ? List.copyOf(sql) : List.of());
+        }
+
+        /** Ends the scope and adds its counts to the enclosing one. */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            if (CURRENT.get() != this) {
+                throw new IllegalStateException("SQL statistics scopes must be closed in reverse order");
+            }
+            if (parent != null) {
+                // Nothing adds to this scope once closed, so its counters are final here
+                parent.add(this);
+            }
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires {@link SqlStatistics} into the application, unless
+ * {@code tuto.sql-stats.enabled=false}.
+ *
+ * Every DataSource bean is wrapped in a {@link SqlStatisticsDataSource}, and
+ * each public {@link UserService} method runs in its own scope, recorded
+ * with {@code scope=service} and {@code operation=UserService.<method>}.
+ * That scope wraps the transaction advice, so it also covers the statements
+ * flushed when the method's transaction commits. The HTTP
+ * scope is opened by {@link SqlStatisticsFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tuto.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfiguration {
+
+    @Bean
+    static BeanPostProcessor sqlStatisticsDataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlStatisticsDataSource)) {
+                    return new SqlStatisticsDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor userServiceSqlStatistics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceAdvisingPostProcessor(UserService.class, invocation -> {
+            SqlStatistics.Scope scope = SqlStatistics.open(false);
+            try {
+                return invocation.proceed();
+            } finally {
+                scope.close();
+                MeterRegistry registry = meterRegistry.getIfAvailable();
+                if (registry != null) {
+                    SqlStatistics.record(registry, "service", "UserService." + invocation.getMethod().getName(),
+                            scope.counts());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.tuto;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that reports JDBC work to {@link SqlStatistics}.
+ *
+ * Connections, statements and result sets are wrapped in JDK proxies:
+ * every {@code execute*} call counts as one statement and is timed, and
+ * every successful {@code ResultSet#next()} counts as one fetched row.
+ * Every connection is wrapped, and the scope is looked up when a statement
+ * executes, so work on a connection taken before the scope opened (a
+ * test-managed transaction, an open-session-in-view request) still counts.
+ * Statements executed outside any scope, such as the outbox relay or bulk
+ * import workers, only pay that lookup: they are neither timed nor get
+ * their result sets wrapped. Extending
+ * {@link DelegatingDataSource} keeps the pool reachable for Spring Boot's
+ * DataSource unwrapping (Hikari metrics, health).
+ */
+public class SqlStatisticsDataSource extends DelegatingDataSource {
+
+    private static final ClassLoader CLASS_LOADER = SqlStatisticsDataSource.class.getClassLoader();
+
+    public SqlStatisticsDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(super.getConnection(username, password));
+    }
+
+    private static Connection instrument(Connection connection) {
+        return wrap(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[] {type}, handler));
+    }
+
+    private static ResultSet wrapResultSet(Object resultSet) {
+        return resultSet == null ? null : wrap(ResultSet.class, new ResultSetHandler((ResultSet) resultSet));
+    }
+
+    /** Identity semantics for the proxy and transparent delegation of everything else */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> target.toString();
+                default -> handle(method, args);
+            };
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        final Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends DelegatingHandler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if (!(result instanceof Statement)) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            StatementHandler handler = new StatementHandler(result, sql);
+            if (result instanceof CallableStatement) {
+                return wrap(CallableStatement.class, handler);
+            }
+            if (result instanceof PreparedStatement) {
+                return wrap(PreparedStatement.class, handler);
+            }
+            return wrap(Statement.class, handler);
+        }
+    }
+
+    private static final class StatementHandler extends DelegatingHandler {
+
+        private final String sql;
+
+        StatementHandler(Object target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute") && SqlStatistics.current() != null) {
+                long start = System.nanoTime();
+                try {
+                    Object result = delegate(method, args);
+                    return result instanceof ResultSet ? wrapResultSet(result) : result;
+                } finally {
+                    String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                    SqlStatistics.statementExecuted(executed, System.nanoTime() - start);
+                }
+            }
+            Object result = delegate(method, args);
+            if (result instanceof ResultSet && (name.equals("getResultSet") || name.equals("getGeneratedKeys"))) {
+                return wrapResultSet(result);
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler extends DelegatingHandler {
+
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if (result == Boolean.TRUE && method.getName().equals("next")) {
+                SqlStatistics.rowFetched();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Counts the JDBC work of every HTTP request with {@link SqlStatistics}.
+ *
+ * Each request is recorded with {@code scope=http} and
+ * {@code operation="<method> <route pattern>"}, so ids in the path do not
+ * explode the tag space. With {@code tuto.sql-stats.debug-headers=true} the
+ * response also carries {@code X-SQL-Statements}, {@code X-SQL-Rows} and
+ * {@code X-SQL-Time} (milliseconds). Headers must be set before the response
+ * commits, so they are written when the body is first opened: after the
+ * controller has run, but without buffering the body.
+ */
+@Component
+@ConditionalOnProperty(name = "tuto.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    static final String ROWS_HEADER = "X-SQL-Rows";
+    static final String TIME_HEADER = "X-SQL-Time";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final boolean debugHeaders;
+
+    public SqlStatisticsFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${tuto.sql-stats.debug-headers:false}") boolean debugHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.debugHeaders = debugHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics.Scope scope = SqlStatistics.open(false);
+        DebugHeaderResponse debugResponse = debugHeaders ? new DebugHeaderResponse(response, scope) : null;
+        try {
+            filterChain.doFilter(request, debugResponse != null ? debugResponse : response);
+        } finally {
+            if (debugResponse != null) {
+                debugResponse.writeHeaders();
+            }
+            scope.close();
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                SqlStatistics.record(registry, "http", operation(request), scope.counts());
+            }
+        }
+    }
+
+    private static String operation(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+
+    /** Adds the counts of the request so far as headers, once, just before the response commits */
+    private static final class DebugHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatistics.Scope scope;
+        private boolean written;
+
+        DebugHeaderResponse(HttpServletResponse response, SqlStatistics.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            SqlCounts counts = scope.counts();
+            setHeader(STATEMENTS_HEADER, Long.toString(counts.statements()));
+            setHeader(ROWS_HEADER, Long.toString(counts.rows()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", counts.jdbcMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
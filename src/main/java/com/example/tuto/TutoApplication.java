@@ -1,13 +1,26 @@
 package com.example.tuto;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(TutoRuntimeHints.class)
 public class TutoApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(TutoApplication.class, args);
+		SpringApplication application = new SpringApplication(TutoApplication.class);
+		boolean importCommand = UserImportRunner.isImportCommand(args);
+		if (importCommand) {
+			// Import and exit: no web server, and the context closes once UserImportRunner is done
+			application.setWebApplicationType(WebApplicationType.NONE);
+		}
+		ConfigurableApplicationContext context = application.run(args);
+		if (importCommand) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,48 @@
+package com.example.tuto;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer.
+ *
+ * Controller request and response bodies are registered by AOT already;
+ * these are the types serialized outside of a controller signature, method
+ * handles looked up by name, JDK proxies, and resources read through a property.
+ */
+class TutoRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Written by Jackson into the outbox payload and the SSE change stream
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), UserChangeEvent.class);
+
+        // Read by Jackson from NDJSON imports, outside of a controller signature
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), UserImporter.ImportRow.class);
+
+        // Operator targets found with MethodHandles.Lookup#findStatic
+        hints.reflection().registerType(ExpressionCompiler.class, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        // JDBC proxies of SqlStatisticsDataSource
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+        hints.proxies().registerJdkProxy(ResultSet.class);
+
+        // spring.sql.init.schema-locations of the fast profile
+        hints.resources().registerPattern("db/schema.sql");
+
+        // hibernate.cache.region.factory_class and the regions it reads
+        hints.reflection().registerType(EhcacheRegionFactory.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern(EhcacheRegionFactory.CONFIGURATION.substring(1));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.tuto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends each {@link Invalidation} as one UDP datagram to a fixed list of
+ * peers and delivers datagrams received on the bound port to subscribers.
+ *
+ * A datagram is a magic number followed by the four fields, 32 bytes in
+ * all; anything else is dropped, as is any datagram whose source address
+ * and port are not one of the peers. Peers send from the port they listen
+ * on, so the peer list doubles as the list of allowed senders. There are
+ * no acknowledgements or retries, which is what {@link UserNearCache}'s
+ * time-to-live is for.
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(UdpInvalidationTransport.class);
+
+    static final int MAGIC = 0x55494e56; // "UINV"
+    static final int MESSAGE_BYTES = 4 + 4 + 8 + 8 + 8;
+
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+    private final Set<InetSocketAddress> senders;
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+
+    public UdpInvalidationTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers) {
+        try {
+            this.channel = DatagramChannel.open().bind(bindAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot bind invalidation transport to " + bindAddress, e);
+        }
+        this.peers = List.copyOf(peers);
+        this.senders = Set.copyOf(peers);
+        this.receiver = Thread.ofPlatform().name("near-cache-invalidations").daemon().start(this::receive);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        ByteBuffer buffer = ByteBuffer.allocate(MESSAGE_BYTES)
+            .putInt(MAGIC)
+            .putInt(invalidation.origin())
+            .putLong(invalidation.userId())
+            .putLong(invalidation.version())
+            .putLong(invalidation.sentAtMicros());
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(buffer.flip(), peer);
+            } catch (IOException e) {
+                log.warn("Could not send invalidation to {}: {}", peer, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /** The bound address, with the actual port when bound to port 0 */
+    public InetSocketAddress localAddress() {
+        try {
+            return (InetSocketAddress) channel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void receive() {
+        ByteBuffer buffer = ByteBuffer.allocate(MESSAGE_BYTES + 1);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                SocketAddress source = channel.receive(buffer);
+                buffer.flip();
+                if (!senders.contains(source) || buffer.remaining() != MESSAGE_BYTES || buffer.getInt() != MAGIC) {
+                    continue;
+                }
+                Invalidation invalidation = new Invalidation(
+                    buffer.getInt(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+                for (Consumer<Invalidation> listener : listeners) {
+                    listener.accept(invalidation);
+                }
+            } catch (ClosedChannelException closed) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Dropped invalidation datagram: {}", e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            receiver.join(1000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,47 @@
 package com.example.tuto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 /**
  * Simple User entity for testing purposes
+ *
+ * Ids are assigned by {@link UserService} through an {@link IdGenerator}
+ * before persist, so inserts need no round trip to learn the key and can be
+ * batched. {@link Persistable} tells Spring Data that such an entity is
+ * still new, otherwise {@code save} would issue a SELECT and merge.
+ *
+ * Users are kept in the second-level cache region {@code users}
+ * (read-write: a user being changed is read from the database until the
+ * change commits).
  */
 @Entity
 @Table(name = "users")
-public class User {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+public class User implements Persistable<Long> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
     private String email;
 
+    /** Optimistic lock, also orders cached copies in {@link UserNearCache} */
+    @Version
+    private long version;
+
+    @Transient
+    private boolean isNew = true;
+
     // JPA requires a no-args constructor
     protected User() {}
 
@@ -27,11 +51,19 @@ public class User {
         this.email = email;
     }
 
+    /** A detached copy of a stored user, as handed out by {@link UserNearCache} */
+    User(Long id, String name, String email, long version) {
+        this(id, name, email);
+        this.version = version;
+        this.isNew = false;
+    }
+
     public User(String name, String email) {
         this.name = name;
         this.email = email;
     }
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -56,6 +88,28 @@ public class User {
         this.email = email;
     }
 
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /** For stores that keep users outside JPA, see {@link CompactUserRepository} */
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     @Override
     public String toString() {
         return "User{id=" + id + ", name='" + name + "', email='" + email + "'}";
@@ -0,0 +1,179 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro-batching loader behind {@link UserService#findById}, enabled with
+ * {@code tuto.users.batch.enabled=true}.
+ *
+ * Lookups arriving within {@code window} of the first pending one are
+ * gathered and read with one multi-load query; a batch is sent early once it
+ * holds {@code max-size} ids. Concurrent lookups of the same id share one
+ * result. Up to {@code parallelism} batches run at a time, so keep it below
+ * the connection pool size.
+ *
+ * This trades up to one window of latency per lookup for fewer round trips:
+ * it pays off under fan-out load, not for a lone request. The batch's SQL
+ * runs on a loader thread, so it is recorded with {@code scope=batch}
+ * instead of in the caller's request and service scopes.
+ *
+ * Metrics: {@code users.batch.size} (distinct ids per query) and
+ * {@code users.batch.coalesced} (lookups that joined a pending one).
+ */
+@Component
+@ConditionalOnProperty(name = "tuto.users.batch.enabled", havingValue = "true")
+public class UserBatchLoader implements DisposableBean {
+
+    private final Function<List<Long>, List<User>> batchFunction;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSizes;
+    private final Counter coalesced;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Optional<User>>> pending = new LinkedHashMap<>();
+
+    @Autowired
+    public UserBatchLoader(UserRepository userRepository, MeterRegistry meterRegistry,
+                           @Value("${tuto.users.batch.window:2ms}") Duration window,
+                           @Value("${tuto.users.batch.max-size:100}") int maxSize,
+                           @Value("${tuto.users.batch.parallelism:4}") int parallelism) {
+        this(ids -> userRepository.multiLoad(ids, maxSize), meterRegistry, window, maxSize, parallelism);
+    }
+
+    UserBatchLoader(Function<List<Long>, List<User>> batchFunction, MeterRegistry meterRegistry,
+                    Duration window, int maxSize, int parallelism) {
+        if (maxSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("user-batch-timer").daemon().factory());
+        this.workers = Executors.newFixedThreadPool(parallelism,
+            Thread.ofPlatform().name("user-batch-", 0).daemon().factory());
+        this.meterRegistry = meterRegistry;
+        this.batchSizes = DistributionSummary.builder("users.batch.size")
+            .description("Distinct user ids read per batched query")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("users.batch.coalesced")
+            .description("Lookups served by a query another lookup of the same id was waiting for")
+            .register(meterRegistry);
+    }
+
+    /** Blocks until the batch holding {@code id} has been read */
+    public Optional<User> load(long id) {
+        try {
+            return loadAsync(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Optional<User>> loadAsync(long id) {
+        Map<Long, CompletableFuture<Optional<User>>> full = null;
+        CompletableFuture<Optional<User>> result;
+        synchronized (lock) {
+            result = pending.get(id);
+            if (result != null) {
+                coalesced.increment();
+                return result;
+            }
+            result = new CompletableFuture<>();
+            pending.put(id, result);
+            if (pending.size() >= maxSize || windowNanos == 0) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1) {
+                Map<Long, CompletableFuture<Optional<User>>> batch = pending;
+                timer.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    /** Sends {@code batch} if it is still the one collecting ids, i.e. was not sent early for being full */
+    private void flush(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        try {
+            workers.execute(() -> run(batch));
+        } catch (RuntimeException rejected) {
+            batch.values().forEach(future -> future.completeExceptionally(rejected));
+        }
+    }
+
+    private void run(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        batchSizes.record(ids.size());
+        List<User> users;
+        SqlStatistics.Scope scope = SqlStatistics.open(false);
+        try {
+            users = batchFunction.apply(ids);
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            return;
+        } finally {
+            scope.close();
+            SqlStatistics.record(meterRegistry, "batch", "UserBatchLoader.load", scope.counts());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            batch.get(ids.get(i)).complete(Optional.ofNullable(users.get(i)));
+        }
+    }
+
+    /** Sends the pending batch and waits briefly for running ones, so no caller is left waiting */
+    @Override
+    public void destroy() throws InterruptedException {
+        timer.shutdownNow();
+        Map<Long, CompletableFuture<Optional<User>>> last;
+        synchronized (lock) {
+            last = pending;
+            pending = new LinkedHashMap<>();
+        }
+        if (!last.isEmpty()) {
+            dispatch(last);
+        }
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
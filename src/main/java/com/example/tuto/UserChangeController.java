@@ -0,0 +1,42 @@
+package com.example.tuto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push feed of user changes, replacing polling of GET /api/users
+ *
+ * GET /api/users/changes?since={sequence}
+ *
+ * Every event carries its sequence number as the SSE id, so a client
+ * resumes after a disconnect with {@code ?since=} or the standard
+ * {@code Last-Event-ID} header.
+ */
+@RestController
+@RequestMapping("/api/users/changes")
+public class UserChangeController {
+
+    private final UserChangeStream changeStream;
+
+    public UserChangeController(UserChangeStream changeStream) {
+        this.changeStream = changeStream;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return changeStream.subscribe(since != null ? since : lastEventId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
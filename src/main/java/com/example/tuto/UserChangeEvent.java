@@ -0,0 +1,33 @@
+package com.example.tuto;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link UserService} after every user mutation.
+ *
+ * For {@link Type#DELETED} name and email are null. {@code version} is the
+ * user's optimistic-lock version after the change, or the version of the
+ * deleted row.
+ */
+public record UserChangeEvent(Type type, long userId, String name, String email, long version, Instant occurredAt) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static UserChangeEvent created(User user) {
+        return new UserChangeEvent(Type.CREATED, user.getId(), user.getName(), user.getEmail(), user.getVersion(),
+                Instant.now());
+    }
+
+    static UserChangeEvent updated(User user) {
+        return new UserChangeEvent(Type.UPDATED, user.getId(), user.getName(), user.getEmail(), user.getVersion(),
+                Instant.now());
+    }
+
+    static UserChangeEvent deleted(long userId, long version) {
+        return new UserChangeEvent(Type.DELETED, userId, null, null, version, Instant.now());
+    }
+}
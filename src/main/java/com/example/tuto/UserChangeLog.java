@@ -0,0 +1,111 @@
+package com.example.tuto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring buffer of committed user changes, numbered with a
+ * gap-free sequence starting at 1.
+ *
+ * Memory is bounded by the capacity: once the ring wraps, the oldest changes
+ * are overwritten and readers asking for them are told to resynchronise
+ * (see {@link #oldestSequence()}). Appends are serialised, reads are not.
+ */
+@Component
+public class UserChangeLog {
+
+    /** A change together with its position in the log. */
+    public record Entry(long sequence, UserChangeEvent event) {}
+
+    private final int mask;
+    private final AtomicReferenceArray<Entry> ring;
+    private volatile long lastSequence;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+
+    @Autowired
+    public UserChangeLog(@Value("${tuto.changes.capacity:4096}") int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.mask = capacity - 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChange(UserChangeEvent event) {
+        append(event);
+    }
+
+    public long append(UserChangeEvent event) {
+        appendLock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            ring.set((int) (sequence & mask), new Entry(sequence, event));
+            lastSequence = sequence;
+            appended.signalAll();
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /** Lowest sequence that can still be read. */
+    public long oldestSequence() {
+        return Math.max(1, lastSequence - mask);
+    }
+
+    /**
+     * Returns up to {@code max} entries with a sequence greater than
+     * {@code since}, oldest first. Callers must check
+     * {@code since + 1 >= oldestSequence()} first; entries overwritten while
+     * reading are left out of the result, which then ends early.
+     */
+    public List<Entry> readSince(long since, int max) {
+        long last = lastSequence;
+        List<Entry> result = new ArrayList<>((int) Math.min(max, Math.max(0, last - since)));
+        for (long sequence = since + 1; sequence <= last && result.size() < max; sequence++) {
+            Entry entry = ring.get((int) (sequence & mask));
+            if (entry == null || entry.sequence() != sequence) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Waits until an entry after {@code since} exists or the timeout elapses.
+     *
+     * @return true if newer entries are available
+     */
+    public boolean awaitAfter(long since, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        appendLock.lock();
+        try {
+            while (lastSequence <= since) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
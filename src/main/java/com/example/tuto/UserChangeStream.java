@@ -0,0 +1,124 @@
+package com.example.tuto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes {@link UserChangeLog} entries to Server-Sent Events subscribers.
+ *
+ * Each subscriber is served by its own virtual thread, so a client with a
+ * full TCP window only stalls itself. A subscriber that falls further behind
+ * than the ring buffer holds receives a {@code reset} event and is
+ * disconnected; it must reload the full user list and resubscribe from the
+ * sequence in that event. So does a subscriber whose {@code since} lies
+ * beyond the last sequence, which happens when the log was lost in a restart.
+ */
+@Component
+public class UserChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeStream.class);
+
+    private static final int SEND_BATCH = 256;
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+
+    private final UserChangeLog changeLog;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public UserChangeStream(UserChangeLog changeLog,
+                            @Value("${tuto.changes.emitter-timeout:30m}") Duration emitterTimeout,
+                            @Value("${tuto.changes.max-subscribers:1000}") int maxSubscribers) {
+        this.changeLog = changeLog;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Opens a stream of changes after {@code since}, or of changes from now
+     * on when {@code since} is null.
+     *
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long since) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many change stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, since != null ? since : changeLog.lastSequence());
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        Thread.ofVirtual().name("user-changes-", 0).start(subscriber::run);
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private long cursor;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread thread;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void run() {
+            thread = Thread.currentThread();
+            try {
+                while (!closed.get()) {
+                    if (cursor + 1 < changeLog.oldestSequence() || cursor > changeLog.lastSequence()) {
+                        emitter.send(SseEmitter.event().name("reset").data(changeLog.lastSequence()));
+                        emitter.complete();
+                        return;
+                    }
+                    List<UserChangeLog.Entry> entries = changeLog.readSince(cursor, SEND_BATCH);
+                    if (!entries.isEmpty()) {
+                        for (UserChangeLog.Entry entry : entries) {
+                            emitter.send(SseEmitter.event()
+                                    .id(Long.toString(entry.sequence()))
+                                    .name(entry.event().type().name())
+                                    .data(entry.event()));
+                        }
+                        cursor = entries.get(entries.size() - 1).sequence();
+                    } else if (!changeLog.awaitAfter(cursor, HEARTBEAT.toMillis(), TimeUnit.MILLISECONDS)) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter timed out; the container completes the request
+                log.debug("Change stream subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+                Thread t = thread;
+                if (t != null && t != Thread.currentThread()) {
+                    t.interrupt();
+                }
+            }
+        }
+    }
+}
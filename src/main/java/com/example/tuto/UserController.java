@@ -1,12 +1,20 @@
 package com.example.tuto;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * REST Controller demonstrating CRUD operations
@@ -20,12 +28,37 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private AsyncUserService asyncUserService;
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Value("${tuto.users.lookup.max-ids:1000}")
+    private int maxLookupIds;
+
     /**
      * CREATE - Create a new user
      * POST /api/users
+     *
+     * With an Idempotency-Key header, retries of the same request replay the
+     * first response instead of creating another user.
      */
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody CreateUserRequest request) {
+    public ResponseEntity<User> createUser(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody CreateUserRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return doCreateUser(request);
+        }
+        String fingerprint = request.getName() + "\n" + request.getEmail();
+        return idempotencyStore.execute(idempotencyKey, fingerprint, () -> doCreateUser(request));
+    }
+
+    private ResponseEntity<User> doCreateUser(CreateUserRequest request) {
         try {
             User user = userService.createUser(request.getName(), request.getEmail());
             return ResponseEntity.status(HttpStatus.CREATED).body(user);
@@ -44,6 +77,35 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * READ - Get many users by ID
+     * POST /api/users/lookup with {"ids": [...]}, or GET /api/users?ids=1,2,3
+     *
+     * Users come back in request order, ids without a user are listed in
+     * {@code missing}. No ids, or more than {@code tuto.users.lookup.max-ids},
+     * is a bad request.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookup> lookupUsers(@RequestBody LookupUsersRequest request) {
+        return lookup(request.getIds());
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<UserLookup> getUsersByIds(@RequestParam List<Long> ids) {
+        return lookup(ids);
+    }
+
+    private ResponseEntity<UserLookup> lookup(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > maxLookupIds) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userService.lookupUsers(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * READ - Get a specific user by ID
      * GET /api/users/{id}
@@ -55,9 +117,38 @@ public class UserController {
                    .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * READ - A user together with the user count, as shown on a dashboard
+     * GET /api/users/{id}/overview
+     *
+     * Both are read in parallel; a read exceeding the
+     * {@code tuto.users.async.timeout} answers 503.
+     */
+    @GetMapping("/{id}/overview")
+    public ResponseEntity<UserOverview> getUserOverview(@PathVariable Long id) {
+        CompletableFuture<Optional<User>> user = asyncUserService.findByIdAsync(id);
+        CompletableFuture<Integer> count = asyncUserService.getUserCountAsync();
+        try {
+            return user.thenCombine(count, (found, userCount) -> found
+                    .map(u -> ResponseEntity.ok(new UserOverview(u, userCount)))
+                    .orElse(ResponseEntity.notFound().build()))
+                .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                user.cancel(false);
+                count.cancel(false);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            throw e;
+        }
+    }
+
     /**
      * UPDATE - Update an existing user
      * PUT /api/users/{id}
+     *
+     * Answers 409 when a concurrent update of the same user committed first;
+     * the client can reload the user and retry.
      */
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(
@@ -73,6 +164,8 @@ public class UserController {
                          .orElse(ResponseEntity.notFound().build());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
@@ -89,6 +182,27 @@ public class UserController {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * BULK IMPORT - Load users from a CSV (name,email) or NDJSON body
+     * POST /api/users/import
+     *
+     * The body is streamed into {@link UserImporter}; rows failing the
+     * createUser validation are skipped and listed in the rejects file
+     * named in the response (in {@code tuto.import.rejects-dir}; only the
+     * file name is returned, not the server's path). Answers 501 when users are not kept in the
+     * users table ({@code tuto.users.store} other than jpa).
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(userImporter.importUsers(body, UserImporter.Format.fromContentType(contentType)));
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+    }
+
     /**
      * Additional endpoint - Get user count
      * GET /api/users/count
@@ -138,3 +252,24 @@ class UpdateUserRequest {
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
 }
+
+/**
+ * Request DTO for looking up many users
+ */
+class LookupUsersRequest {
+    private List<Long> ids;
+
+    public LookupUsersRequest() {}
+
+    public LookupUsersRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
+
+/**
+ * Response DTO for a user together with the user count
+ */
+record UserOverview(User user, int userCount) {}
@@ -0,0 +1,55 @@
+package com.example.tuto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Command-line import: {@code java -jar tuto.jar --import=users.csv [--import=more.ndjson]}.
+ *
+ * The format follows the file extension ({@code .ndjson} or {@code .jsonl}
+ * for NDJSON, CSV otherwise). {@link TutoApplication} starts such a run
+ * without the web server and exits when the files are loaded; a failed
+ * import fails the startup and exits non-zero.
+ */
+@Component
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportRunner.class);
+
+    static final String OPTION = "import";
+
+    private final UserImporter userImporter;
+
+    public UserImportRunner(UserImporter userImporter) {
+        this.userImporter = userImporter;
+    }
+
+    static boolean isImportCommand(String[] args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + OPTION + "="));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        for (String file : args.getOptionValues(OPTION)) {
+            Path path = Path.of(file);
+            try (InputStream input = Files.newInputStream(path)) {
+                ImportResult result = userImporter.importUsers(input, UserImporter.Format.fromFileName(file));
+                log.info("{}: {} imported, {} rejected{} in {} ms", path, result.imported(),
+                        result.rejected(), result.rejectsFile() != null ? " (" + result.rejectsFile() + ")" : "",
+                        result.millis());
+            }
+        }
+    }
+}
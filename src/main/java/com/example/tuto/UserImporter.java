@@ -0,0 +1,370 @@
+package com.example.tuto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk load of name/email pairs into the users table, for restoring or
+ * seeding millions of users where one {@code createUser} call per row would
+ * take hours.
+ *
+ * The input is streamed line by line: CSV ({@code name,email}, optional
+ * header, quoted fields without line breaks) or NDJSON
+ * ({@code {"name":...,"email":...}} per line). Every row goes through
+ * {@link UserService#validationError}; valid rows get an id from the
+ * {@link IdGenerator} and are inserted as multi-row JDBC batches of
+ * {@code batch-size}, with up to {@code parallelism} batches committing
+ * concurrently. The reader blocks when all workers are busy, so memory
+ * stays bounded whatever the input size.
+ *
+ * Rejected rows are written to a rejects file as
+ * {@code <line>\t<reason>\t<row>}. Each batch commits on its own: a failed
+ * import keeps the batches committed before the failure. Every imported
+ * user gets a {@code CREATED} outbox row, inserted in the same transaction
+ * as its batch, so outbox consumers see bulk-loaded users like any other.
+ * The in-memory change stream and Hibernate are bypassed: cached user
+ * counts are evicted when the import ends. Only the JPA store
+ * reads the users table, so imports are refused under any other
+ * {@code tuto.users.store}.
+ *
+ * Metrics: {@code users.import.rows} tagged {@code result=imported|rejected}.
+ */
+@Service
+public class UserImporter {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        static Format fromContentType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/x-ndjson")
+                    ? NDJSON : CSV;
+        }
+
+        static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    /** One NDJSON line */
+    record ImportRow(String name, String email) {}
+
+    private static final Logger log = LoggerFactory.getLogger(UserImporter.class);
+
+    private static final String INSERT = "insert into users (id, name, email, version) values (?, ?, ?, 0)";
+    private static final String INSERT_OUTBOX =
+            "insert into user_outbox (id, aggregate_id, event_type, payload, created_at) values (?, ?, ?, ?, ?)";
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final IdGenerator idGenerator;
+    private final ObjectReader rowReader;
+    private final ObjectWriter eventWriter;
+    private final int batchSize;
+    private final int parallelism;
+    private final long progressInterval;
+    private final Path rejectsDirectory;
+    private final boolean usersTable;
+    private final Clock clock;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    @Autowired
+    public UserImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                        EntityManagerFactory entityManagerFactory, IdGenerator idGenerator, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                        @Value("${tuto.import.batch-size:5000}") int batchSize,
+                        @Value("${tuto.import.parallelism:4}") int parallelism,
+                        @Value("${tuto.import.progress-interval:1000000}") long progressInterval,
+                        @Value("${tuto.import.rejects-dir:./data/import-rejects}") Path rejectsDirectory,
+                        @Value("${tuto.users.store:jpa}") String store) {
+        this(jdbcTemplate, transactionTemplate, entityManagerFactory, idGenerator, objectMapper, meterRegistry,
+                batchSize, parallelism, progressInterval, rejectsDirectory, "jpa".equals(store), Clock.systemUTC());
+    }
+
+    UserImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                 EntityManagerFactory entityManagerFactory, IdGenerator idGenerator, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                 int batchSize, int parallelism, long progressInterval, Path rejectsDirectory, boolean usersTable,
+                 Clock clock) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.idGenerator = idGenerator;
+        this.rowReader = objectMapper.readerFor(ImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.eventWriter = objectMapper.writerFor(UserChangeEvent.class);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.progressInterval = progressInterval;
+        this.rejectsDirectory = rejectsDirectory;
+        this.usersTable = usersTable;
+        this.clock = clock;
+        this.importedRows = Counter.builder("users.import.rows")
+                .description("Rows processed by bulk imports")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("users.import.rows")
+                .description("Rows processed by bulk imports")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /** Imports {@code input}, writing rejects to a new timestamped file in the rejects directory. */
+    public ImportResult importUsers(InputStream input, Format format) throws IOException {
+        Path rejectsFile = rejectsDirectory.resolve("import-" + TIMESTAMP.format(clock.instant()) + ".rejects.tsv");
+        return importUsers(input, format, rejectsFile);
+    }
+
+    /**
+     * Imports {@code input}; {@code rejectsFile} is only created if a row is rejected.
+     *
+     * @throws UnsupportedOperationException if users are not kept in the users table
+     */
+    public ImportResult importUsers(InputStream input, Format format, Path rejectsFile) throws IOException {
+        if (!usersTable) {
+            throw new UnsupportedOperationException("Imports write the users table, which tuto.users.store does not read");
+        }
+        long start = System.nanoTime();
+        AtomicLong imported = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // Batches queued or running; the reader waits for a permit before parsing further
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("user-import-", 0).daemon().factory());
+
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+             Rejects rejects = new Rejects(rejectsFile)) {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber % progressInterval == 0) {
+                    logProgress(lineNumber, imported.get(), rejects.count, start);
+                }
+                if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) {
+                    continue;
+                }
+                String[] pair;
+                try {
+                    pair = format == Format.CSV ? parseCsv(line) : parseNdjson(line);
+                } catch (IllegalArgumentException e) {
+                    rejects.write(lineNumber, e.getMessage(), line);
+                    continue;
+                }
+                String error = UserService.validationError(pair[0], pair[1]);
+                if (error != null) {
+                    rejects.write(lineNumber, error, line);
+                    continue;
+                }
+                batch.add(new Object[] {idGenerator.nextId(), pair[0], pair[1]});
+                if (batch.size() == batchSize) {
+                    submit(batch, workers, inFlight, imported, failure);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, workers, inFlight, imported, failure);
+            }
+            inFlight.acquire(parallelism * 2);
+            if (failure.get() != null) {
+                throw new IllegalStateException("Import failed after " + imported.get() + " rows", failure.get());
+            }
+
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            rejectedRows.increment(rejects.count);
+            log.info("Imported {} users in {} ms, {} rejected{}", imported.get(), millis, rejects.count,
+                    rejects.count > 0 ? " (see " + rejectsFile + ")" : "");
+            return new ImportResult(imported.get(), rejects.count,
+                    rejects.count > 0 ? rejectsFile.getFileName().toString() : null, millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted at line " + lineNumber);
+        } finally {
+            workers.shutdownNow();
+            entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(UserRepository.QUERY_CACHE_REGION);
+        }
+    }
+
+    private void submit(List<Object[]> batch, ExecutorService workers, Semaphore inFlight,
+                        AtomicLong imported, AtomicReference<RuntimeException> failure) throws InterruptedException {
+        inFlight.acquire();
+        if (failure.get() != null) {
+            // Stop reading: wait for the running batches, then report the failure
+            inFlight.release();
+            inFlight.acquire(parallelism * 2);
+            throw new IllegalStateException("Import failed after " + imported.get() + " rows", failure.get());
+        }
+        workers.execute(() -> {
+            try {
+                List<Object[]> events = outboxRows(batch);
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT, batch);
+                    jdbcTemplate.batchUpdate(INSERT_OUTBOX, events);
+                });
+                imported.addAndGet(batch.size());
+                importedRows.increment(batch.size());
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /** The outbox rows {@link OutboxWriter} would have written for creating each user of {@code batch} */
+    private List<Object[]> outboxRows(List<Object[]> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Object[] user : batch) {
+            UserChangeEvent event = UserChangeEvent.created(new User((Long) user[0], (String) user[1], (String) user[2], 0));
+            try {
+                rows.add(new Object[] {idGenerator.nextId(), event.userId(), event.type().name(),
+                        eventWriter.writeValueAsString(event), OffsetDateTime.ofInstant(event.occurredAt(), ZoneOffset.UTC)});
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize " + event, e);
+            }
+        }
+        return rows;
+    }
+
+    private static void logProgress(long lines, long imported, long rejected, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Import progress: {} lines read, {} imported, {} rejected, {} lines/s",
+                lines, imported, rejected, Math.round(lines / seconds));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        try {
+            String[] fields = parseCsv(line);
+            return fields[0].trim().equalsIgnoreCase("name") && fields[1].trim().equalsIgnoreCase("email");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Splits one CSV record into name and email; quotes may wrap a field and are escaped by doubling. */
+    static String[] parseCsv(String line) {
+        String[] fields = new String[2];
+        int count = 0;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                if (count == 2) {
+                    throw new IllegalArgumentException("Expected 2 columns");
+                }
+                fields[count++] = wasQuoted ? field.toString() : field.toString().trim();
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (count != 1) {
+            throw new IllegalArgumentException("Expected 2 columns");
+        }
+        fields[1] = wasQuoted ? field.toString() : field.toString().trim();
+        return fields;
+    }
+
+    private String[] parseNdjson(String line) {
+        try {
+            ImportRow row = rowReader.readValue(line);
+            // A "null" line binds to no row at all
+            if (row == null) {
+                throw new IllegalArgumentException("Malformed JSON");
+            }
+            return new String[] {row.name(), row.email()};
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+    }
+
+    /** Rejects file, created on the first rejected row */
+    private static final class Rejects implements Closeable {
+
+        private final Path file;
+        private BufferedWriter writer;
+        long count;
+
+        Rejects(Path file) {
+            this.file = file;
+        }
+
+        void write(long lineNumber, String reason, String line) throws IOException {
+            if (writer == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+            writer.write(lineNumber + "\t" + reason + "\t" + line);
+            writer.newLine();
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.tuto;
+
+import java.util.List;
+
+/**
+ * Result of looking up many users by id.
+ *
+ * @param users   the users found, in the order their ids were first requested
+ * @param missing requested ids with no user, in request order
+ */
+public record UserLookup(List<User> users, List<Long> missing) {}
@@ -0,0 +1,18 @@
+package com.example.tuto;
+
+import java.util.List;
+
+/**
+ * Repository fragment loading many users by id through Hibernate's
+ * multi-load: ids found in the second-level cache are not queried, the rest
+ * are read with {@code where id in (...)} queries of at most
+ * {@code batchSize} ids.
+ */
+public interface UserMultiLoadRepository {
+
+    /**
+     * @return one element per id, in the same order, null where no user
+     *         has that id
+     */
+    List<User> multiLoad(List<Long> ids, int batchSize);
+}
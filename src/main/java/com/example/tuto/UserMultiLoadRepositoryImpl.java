@@ -0,0 +1,27 @@
+package com.example.tuto;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/** Picked up by Spring Data as the implementation of {@link UserMultiLoadRepository} */
+class UserMultiLoadRepositoryImpl implements UserMultiLoadRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> multiLoad(List<Long> ids, int batchSize) {
+        return entityManager.unwrap(Session.class)
+            .byMultipleIds(User.class)
+            // Without an explicit mode, users read by the query are not put in the second-level cache
+            .with(CacheMode.NORMAL)
+            .withBatchSize(batchSize)
+            .multiLoad(ids);
+    }
+}
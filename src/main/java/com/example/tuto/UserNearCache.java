@@ -0,0 +1,188 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded local cache of {@link UserService#findById} results, kept
+ * coherent across nodes by {@link Invalidation} messages.
+ *
+ * Every committed update or delete drops the local entry and is broadcast
+ * over the {@link InvalidationTransport}; other nodes drop theirs on
+ * receipt. Entries are ordered by the user's {@code @Version}: an
+ * invalidation leaves a marker with the lowest version still acceptable, so
+ * a load that read the row before the change cannot put the old copy back
+ * after the invalidation has passed. Deletions set that version to
+ * {@link Long#MAX_VALUE}. A cache-wide clear uses a generation counter for
+ * the same purpose.
+ *
+ * Messages can be lost, so entries and markers also expire after
+ * {@code ttl}, which bounds how long a node can serve a stale user.
+ * Capacity is enforced in access order (LRU), markers included.
+ *
+ * Callers receive copies; changing them does not change the cache.
+ */
+public class UserNearCache {
+
+    /** A cached user ({@code name != null}) or an invalidation marker */
+    private record Entry(String name, String email, long version, long expiresAtMicros) {
+
+        boolean isUser() {
+            return name != null;
+        }
+    }
+
+    private final int nodeId;
+    private final InvalidationTransport transport;
+    private final int maxEntries;
+    private final long ttlMicros;
+    private final LongSupplier clockMicros;
+    private final Map<Long, Entry> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+    private final Timer lag;
+
+    public UserNearCache(int nodeId, InvalidationTransport transport, MeterRegistry meterRegistry,
+                         int maxEntries, Duration ttl) {
+        this(nodeId, transport, meterRegistry, maxEntries, ttl,
+            () -> ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+    }
+
+    UserNearCache(int nodeId, InvalidationTransport transport, MeterRegistry meterRegistry,
+                  int maxEntries, Duration ttl, LongSupplier clockMicros) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.maxEntries = maxEntries;
+        this.ttlMicros = TimeUnit.NANOSECONDS.toMicros(ttl.toNanos());
+        this.clockMicros = clockMicros;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > UserNearCache.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("user.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.localInvalidations = Counter.builder("user.cache.invalidations").tag("source", "local")
+            .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("user.cache.invalidations").tag("source", "remote")
+            .register(meterRegistry);
+        this.lag = Timer.builder("user.cache.invalidation.lag")
+            .description("Time from a change committing on another node until this node dropped its copy")
+            .register(meterRegistry);
+        Gauge.builder("user.cache.size", this, UserNearCache::size).register(meterRegistry);
+
+        transport.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Returns the cached user, or loads it with {@code loader} and caches the
+     * result unless it was invalidated while loading. Absent users are not
+     * cached.
+     */
+    public Optional<User> get(long id, LongFunction<Optional<User>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAtMicros() <= clockMicros.getAsLong()) {
+                entries.remove(id);
+                entry = null;
+            }
+            if (entry != null && entry.isUser()) {
+                hits.increment();
+                return Optional.of(new User(id, entry.name(), entry.email(), entry.version()));
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+
+        Optional<User> loaded = loader.apply(id);
+        loaded.ifPresent(user -> put(user, loadGeneration));
+        return loaded.map(user -> new User(user.getId(), user.getName(), user.getEmail(), user.getVersion()));
+    }
+
+    private synchronized void put(User user, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        Entry existing = entries.get(user.getId());
+        if (existing != null && existing.version() > user.getVersion()
+                && existing.expiresAtMicros() > clockMicros.getAsLong()) {
+            return;
+        }
+        entries.put(user.getId(), new Entry(user.getName(), user.getEmail(), user.getVersion(),
+            clockMicros.getAsLong() + ttlMicros));
+    }
+
+    /** Invalidates this node's copy after a change commits and tells the other nodes */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChange(UserChangeEvent event) {
+        if (event.type() == UserChangeEvent.Type.CREATED) {
+            return;
+        }
+        long version = event.type() == UserChangeEvent.Type.DELETED ? Long.MAX_VALUE : event.version();
+        invalidateLocally(event.userId(), version);
+        transport.publish(new Invalidation(nodeId, event.userId(), version, clockMicros.getAsLong()));
+    }
+
+    /** Drops every entry on every node, for changes that bypass {@link UserChangeEvent}s */
+    public void invalidateAll() {
+        invalidateLocally(Invalidation.ALL_USERS, Long.MAX_VALUE);
+        transport.publish(new Invalidation(nodeId, Invalidation.ALL_USERS, Long.MAX_VALUE, clockMicros.getAsLong()));
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        if (invalidation.origin() == nodeId) {
+            return;
+        }
+        invalidate(invalidation.userId(), invalidation.version());
+        remoteInvalidations.increment();
+        lag.record(Math.max(0, clockMicros.getAsLong() - invalidation.sentAtMicros()), TimeUnit.MICROSECONDS);
+    }
+
+    private void invalidateLocally(long userId, long version) {
+        invalidate(userId, version);
+        localInvalidations.increment();
+    }
+
+    private synchronized void invalidate(long userId, long version) {
+        if (userId == Invalidation.ALL_USERS) {
+            entries.clear();
+            generation++;
+            return;
+        }
+        Entry existing = entries.get(userId);
+        if (existing != null && existing.isUser() && existing.version() >= version) {
+            // Already holds the new version, loaded after the change committed
+            return;
+        }
+        long minVersion = existing != null && !existing.isUser() ? Math.max(existing.version(), version) : version;
+        entries.put(userId, new Entry(null, null, minVersion, clockMicros.getAsLong() + ttlMicros));
+    }
+
+    /** Cached users and invalidation markers */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -1,6 +1,25 @@
 package com.example.tuto;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+/**
+ * The user count is kept in the {@code user-queries} region of the query
+ * cache; Hibernate discards it whenever it writes to the users table. Writes
+ * that bypass Hibernate must evict the region themselves (see
+ * {@link UserImporter}). {@code findAll} is not cached: a cached list would
+ * keep every user on the heap for as long as the table does not change.
+ */
+public interface UserRepository extends JpaRepository<User, Long>, UserMultiLoadRepository {
+
+    String QUERY_CACHE_REGION = "user-queries";
+
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    long count();
 }
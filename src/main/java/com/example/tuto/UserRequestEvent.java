@@ -0,0 +1,49 @@
+package com.example.tuto;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one HTTP request to /api/users, emitted by
+ * {@link FlightRecorderFilter}. The event duration is the request time.
+ */
+@Name("com.example.tuto.UserRequest")
+@Label("User Request")
+@Category({"Tuto", "HTTP"})
+@Description("HTTP request handled by UserController")
+@StackTrace(false)
+class UserRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Route")
+    @Description("Matched route pattern, such as /api/users/{id}")
+    String route;
+
+    @Label("User Id")
+    @Description("The {id} path variable, 0 when the route has none")
+    long userId;
+
+    @Label("Status")
+    int status;
+
+    @Label("Outcome")
+    @Description("ok, client-error, server-error, or the exception class name")
+    String outcome;
+
+    @Label("SQL Statements")
+    long sqlStatements;
+
+    @Label("SQL Rows")
+    long sqlRows;
+
+    @Label("DB Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbTime;
+}
@@ -1,47 +1,132 @@
 package com.example.tuto;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.LongFunction;
 
 /**
  * Service class for managing users
  * This will be used to demonstrate Spring service testing
+ *
+ * Mutations run in a transaction so that the outbox row written by
+ * {@link OutboxWriter} commits atomically with the user change.
+ *
+ * {@link #findById} is served from the {@link UserNearCache} when one is
+ * configured, and misses go through the {@link UserBatchLoader} when that is
+ * enabled; neither is used inside a transaction, which must see its own
+ * writes.
  */
 @Service
 public class UserService {
 
+    /** Ids per query in {@link #lookupUsers} */
+    static final int LOOKUP_CHUNK_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final IdGenerator idGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserNearCache nearCache;
+    private final LongFunction<Optional<User>> loader;
+
+    @Autowired
+    public UserService(UserRepository userRepository, IdGenerator idGenerator,
+                       ApplicationEventPublisher eventPublisher, ObjectProvider<UserNearCache> nearCache,
+                       ObjectProvider<UserBatchLoader> batchLoader) {
+        this(userRepository, idGenerator, eventPublisher, nearCache.getIfAvailable(), batchLoader.getIfAvailable());
+    }
 
-    public UserService(UserRepository userRepository) {
+    /**
+     * @param nearCache   null to always read from the repository
+     * @param batchLoader null to read each user with its own query
+     */
+    UserService(UserRepository userRepository, IdGenerator idGenerator,
+                ApplicationEventPublisher eventPublisher, UserNearCache nearCache, UserBatchLoader batchLoader) {
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.eventPublisher = eventPublisher;
+        this.nearCache = nearCache;
+        this.loader = batchLoader != null ? batchLoader::load : userRepository::findById;
     }
 
+    @Transactional
     public User createUser(String name, String email) {
+        String error = validationError(name, email);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        User user = new User(idGenerator.nextId(), name, email);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangeEvent.created(saved));
+        return saved;
+    }
+
+    /**
+     * Validation rules for new users, shared with {@link UserImporter}.
+     *
+     * @return why the pair is rejected, or {@code null} if it is valid
+     */
+    static String validationError(String name, String email) {
         if (name == null || name.isBlank()) {
-            throw new IllegalArgumentException("Name cannot be empty");
+            return "Name cannot be empty";
         }
         if (email == null || !email.contains("@")) {
-            throw new IllegalArgumentException("Invalid email");
+            return "Invalid email";
         }
-
-        User user = new User(name, email);
-        return userRepository.save(user);
+        return null;
     }
 
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return userRepository.findById(id);
+        }
+        return nearCache != null ? nearCache.get(id, loader) : loader.apply(id);
+    }
+
+    /**
+     * Looks up many users with one query per {@link #LOOKUP_CHUNK_SIZE} ids
+     * not already in the second-level cache. Repeated ids are looked up and
+     * returned once.
+     */
+    public UserLookup lookupUsers(List<Long> ids) {
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids cannot be null");
+        }
+        List<Long> distinct = ids.stream().distinct().toList();
+        List<User> loaded = distinct.isEmpty() ? List.of() : userRepository.multiLoad(distinct, LOOKUP_CHUNK_SIZE);
+
+        List<User> users = new ArrayList<>(distinct.size());
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            if (loaded.get(i) != null) {
+                users.add(loaded.get(i));
+            } else {
+                missing.add(distinct.get(i));
+            }
+        }
+        return new UserLookup(users, missing);
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional
     public boolean deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isEmpty()) {
             return false;
         }
-        userRepository.deleteById(id);
+        userRepository.delete(user.get());
+        eventPublisher.publishEvent(UserChangeEvent.deleted(id, user.get().getVersion()));
         return true;
     }
 
@@ -49,8 +134,9 @@ public class UserService {
         return Math.toIntExact(userRepository.count());
     }
 
+    @Transactional
     public Optional<User> updateUser(Long id, String name, String email) {
-        Optional<User> userOptional = findById(id);
+        Optional<User> userOptional = userRepository.findById(id);
 
         if (userOptional.isEmpty()) {
             return Optional.empty();
@@ -67,11 +153,16 @@ public class UserService {
             throw new IllegalArgumentException("Invalid email");
         }
 
-        User saved = userRepository.save(user);
+        // Flush so the event carries the incremented version
+        User saved = userRepository.saveAndFlush(user);
+        eventPublisher.publishEvent(UserChangeEvent.updated(saved));
         return Optional.of(saved);
     }
 
     public void clearAll() {
         userRepository.deleteAll();
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
     }
 }
@@ -0,0 +1,42 @@
+package com.example.tuto;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one public {@link UserService} call, including the commit
+ * of its transaction. The event duration is the call time.
+ */
+@Name("com.example.tuto.UserServiceCall")
+@Label("User Service Call")
+@Category({"Tuto", "Service"})
+@Description("Call of a public UserService method")
+@StackTrace(false)
+class UserServiceCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    @Description("The id argument, or the id of the returned user; 0 when there is none")
+    long userId;
+
+    @Label("Outcome")
+    @Description("ok, not-found, or the exception class name")
+    String outcome;
+
+    @Label("SQL Statements")
+    long sqlStatements;
+
+    @Label("SQL Rows")
+    long sqlRows;
+
+    @Label("DB Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbTime;
+}
@@ -0,0 +1,473 @@
+package com.example.tuto;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Base of the {@link UserRepository} implementations that keep users outside
+ * the database ({@link CompactUserRepository}, {@link LogUserRepository}),
+ * selected with {@code tuto.users.store}. Subclasses provide a handful of
+ * primitives; the rest of the repository contract is derived here.
+ *
+ * Within a transaction the repository hands out one instance per id, as a
+ * persistence context would, so a user returned by {@code save} sees later
+ * changes made through {@code findById}. Writes are kept in the transaction,
+ * which reads its own writes, and reach the store just before the database
+ * commits, so other threads never see uncommitted users and a rollback has
+ * nothing to undo; this keeps a user change and its outbox row together.
+ * Outside a transaction writes apply at once. Saving a stale version throws
+ * {@link ObjectOptimisticLockingFailureException}, saving a new user with a
+ * taken id {@link DuplicateKeyException}; both are checked again at commit,
+ * where they roll the whole transaction back. If the database commit itself
+ * fails after that, the store keeps the writes. Query by example is not
+ * supported.
+ *
+ * Nothing is written to the users table, so SQL against it does not see
+ * these users and {@link UserImporter} refuses to run.
+ */
+abstract class UserStoreRepository implements UserRepository {
+
+    /** Version of a user that does not exist */
+    protected static final long ABSENT = -1;
+    /** Expected version of a write that applies whatever is stored */
+    protected static final long ANY = -2;
+
+    /**
+     * One change to apply: {@code user} replaces the stored user of
+     * {@code id} with its version, or deletes it when null. The change only
+     * applies if the stored version is {@code expectedVersion}.
+     */
+    protected record Write(long id, long expectedVersion, User user) {}
+
+    /** @return the stored user, or null */
+    protected abstract User load(long id);
+
+    /** @return one element per id, null where no user has that id */
+    protected List<User> load(List<Long> ids) {
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            users.add(load(requireId(id)));
+        }
+        return users;
+    }
+
+    protected abstract List<User> loadAll();
+
+    /** @return the stored version of {@code id}, or {@link #ABSENT} */
+    protected abstract long version(long id);
+
+    /** @return the number of stored users */
+    protected abstract long size();
+
+    /**
+     * Applies all {@code writes} or, when one of them fails
+     * {@link #check(Write, long)}, none
+     */
+    protected abstract void commit(List<Write> writes);
+
+    protected abstract void eraseAll();
+
+    /** Throws unless {@code write} may replace a user stored at {@code storedVersion} */
+    protected static void check(Write write, long storedVersion) {
+        long expected = write.expectedVersion();
+        if (expected != ANY && expected != storedVersion) {
+            throw expected == ABSENT
+                ? new DuplicateKeyException("A user with id " + write.id() + " already exists")
+                : new ObjectOptimisticLockingFailureException(User.class, write.id());
+        }
+    }
+
+    /** Rejects null and ids a subclass cannot store */
+    protected Long requireId(Long id) {
+        if (id == null) {
+            throw new InvalidDataAccessApiUsageException("A user id must be assigned before it is stored");
+        }
+        return id;
+    }
+
+    // ========== Reads ==========
+
+    @Override
+    public Optional<User> findById(Long id) {
+        requireId(id);
+        StoreTransaction transaction = transaction();
+        if (transaction == null) {
+            return Optional.ofNullable(load(id));
+        }
+        if (transaction.managed.containsKey(id) || transaction.writes.containsKey(id)) {
+            return Optional.ofNullable(transaction.visible(id, null));
+        }
+        return Optional.ofNullable(transaction.visible(id, load(id)));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        requireId(id);
+        StoreTransaction transaction = transaction();
+        return (transaction == null ? version(id) : transaction.version(id)) != ABSENT;
+    }
+
+    @Override
+    public List<User> multiLoad(List<Long> ids, int batchSize) {
+        StoreTransaction transaction = transaction();
+        List<User> users = load(ids);
+        if (transaction != null) {
+            for (int i = 0; i < users.size(); i++) {
+                users.set(i, transaction.visible(ids.get(i), users.get(i)));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        List<User> users = new ArrayList<>(multiLoad(list, list.size()));
+        users.removeIf(user -> user == null);
+        return users;
+    }
+
+    /** In storage order, followed by users created in the current transaction */
+    @Override
+    public List<User> findAll() {
+        StoreTransaction transaction = transaction();
+        List<User> users = loadAll();
+        if (transaction == null) {
+            return users;
+        }
+        List<User> visible = new ArrayList<>(users.size());
+        for (User user : users) {
+            User current = transaction.visible(user.getId(), user);
+            if (current != null) {
+                visible.add(current);
+            }
+        }
+        for (Write write : transaction.writes.values()) {
+            if (write.expectedVersion() == ABSENT && write.user() != null) {
+                visible.add(transaction.visible(write.id(), null));
+            }
+        }
+        return visible;
+    }
+
+    @Override
+    public long count() {
+        StoreTransaction transaction = transaction();
+        long count = size();
+        if (transaction != null) {
+            for (Write write : transaction.writes.values()) {
+                count += (write.user() == null ? 0 : 1) - (write.expectedVersion() == ABSENT ? 0 : 1);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<User> findAll(Sort sort) {
+        List<User> users = findAll();
+        Comparator<User> order = comparator(sort);
+        if (order != null) {
+            users.sort(order);
+        }
+        return users;
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        List<User> users = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(users);
+        }
+        int from = (int) Math.min(pageable.getOffset(), users.size());
+        int to = Math.min(from + pageable.getPageSize(), users.size());
+        return new PageImpl<>(users.subList(from, to), pageable, users.size());
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("No user with id " + id));
+    }
+
+    @Override
+    @Deprecated
+    public User getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public User getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    // ========== Writes ==========
+
+    @Override
+    public <S extends User> S save(S user) {
+        long id = requireId(user.getId());
+        StoreTransaction transaction = transaction();
+        long version;
+        if (transaction == null) {
+            version = user.isNew() ? user.getVersion() : user.getVersion() + 1;
+            commit(List.of(new Write(id, user.isNew() ? ABSENT : user.getVersion(), copy(user, version))));
+        } else {
+            long current = transaction.version(id);
+            check(new Write(id, user.isNew() ? ABSENT : user.getVersion(), user), current);
+            version = user.isNew() ? user.getVersion() : current + 1;
+            transaction.write(id, copy(user, version));
+            transaction.managed.put(id, user);
+        }
+        user.setVersion(version);
+        user.markNotNew();
+        return user;
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S user) {
+        return save(user);
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> users) {
+        List<S> saved = new ArrayList<>();
+        for (S user : users) {
+            saved.add(save(user));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends User> List<S> saveAllAndFlush(Iterable<S> users) {
+        return saveAll(users);
+    }
+
+    @Override
+    public void flush() {
+        // Writes reach the store at commit, nothing else would see a flush
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        requireId(id);
+        StoreTransaction transaction = transaction();
+        if (transaction == null) {
+            commit(List.of(new Write(id, ANY, null)));
+        } else if (transaction.version(id) != ABSENT) {
+            transaction.write(id, null);
+            transaction.managed.remove(id);
+        }
+    }
+
+    @Override
+    public void delete(User user) {
+        deleteById(user.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends User> users) {
+        users.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<User> users) {
+        deleteAll(users);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAll() {
+        StoreTransaction transaction = transaction();
+        if (transaction == null) {
+            eraseAll();
+        } else {
+            findAll().forEach(user -> deleteById(user.getId()));
+        }
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    // ========== Query by example ==========
+
+    @Override
+    public <S extends User> Optional<S> findOne(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User> long count(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User> boolean exists(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends User, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExample();
+    }
+
+    private UnsupportedOperationException queryByExample() {
+        return new UnsupportedOperationException("Query by example is not supported by " + getClass().getSimpleName());
+    }
+
+    // ========== Transaction-scoped identity and writes ==========
+
+    /** What the current transaction handed out and will write at commit */
+    private final class StoreTransaction implements TransactionSynchronization {
+        /** The instance handed out per id */
+        final Map<Long, User> managed = new HashMap<>();
+        /**
+         * Pending change per id, in the order first changed; the expected
+         * version is the one the transaction first saw
+         */
+        final Map<Long, Write> writes = new LinkedHashMap<>();
+
+        /** @return the version of {@code id} as this transaction sees it */
+        long version(long id) {
+            Write write = writes.get(id);
+            if (write == null) {
+                return UserStoreRepository.this.version(id);
+            }
+            return write.user() == null ? ABSENT : write.user().getVersion();
+        }
+
+        /** Records {@code user} (null: a delete) as the pending change of {@code id} */
+        void write(long id, User user) {
+            Write pending = writes.get(id);
+            long expected = pending != null ? pending.expectedVersion() : UserStoreRepository.this.version(id);
+            writes.put(id, new Write(id, expected, user));
+        }
+
+        /**
+         * @param stored the committed user of {@code id}, or null
+         * @return the instance of {@code id} handed out in this transaction,
+         *         or null if it does not exist for it
+         */
+        User visible(long id, User stored) {
+            User user = managed.get(id);
+            if (user != null) {
+                return user;
+            }
+            Write write = writes.get(id);
+            if (write != null) {
+                stored = write.user() == null ? null : copy(write.user(), write.user().getVersion());
+            }
+            if (stored != null) {
+                managed.put(id, stored);
+            }
+            return stored;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<Write> changes = new ArrayList<>(writes.size());
+            for (Write write : writes.values()) {
+                // Created and deleted again within the transaction
+                if (write.user() != null || write.expectedVersion() != ABSENT) {
+                    changes.add(write);
+                }
+            }
+            if (!changes.isEmpty()) {
+                commit(changes);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(UserStoreRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(UserStoreRepository.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UserStoreRepository.this);
+        }
+    }
+
+    /** @return the current transaction's state, or null outside one */
+    private StoreTransaction transaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        StoreTransaction transaction = (StoreTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            transaction = new StoreTransaction();
+            TransactionSynchronizationManager.bindResource(this, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return transaction;
+    }
+
+    /** A detached copy, so later changes to {@code user} do not leak into the store */
+    private static User copy(User user, long version) {
+        return new User(user.getId(), user.getName(), user.getEmail(), version);
+    }
+
+    private static Comparator<User> comparator(Sort sort) {
+        Comparator<User> order = null;
+        for (Sort.Order property : sort) {
+            Comparator<User> next = switch (property.getProperty()) {
+                case "id" -> Comparator.comparing(User::getId);
+                case "name" -> Comparator.comparing(User::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "email" -> Comparator.comparing(User::getEmail, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> throw new InvalidDataAccessApiUsageException("Cannot sort users by " + property.getProperty());
+            };
+            next = property.isDescending() ? next.reversed() : next;
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+}
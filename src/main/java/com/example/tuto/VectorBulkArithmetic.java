@@ -0,0 +1,96 @@
+package com.example.tuto;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * SIMD implementation of {@link BulkArithmetic} on the Java 21 Vector API
+ * (incubator). Only loaded when the {@code jdk.incubator.vector} module is
+ * resolved; tails shorter than one vector are finished with scalar code.
+ */
+final class VectorBulkArithmetic implements BulkArithmetic {
+
+    private static final VectorSpecies<Integer> INT = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE = DoubleVector.SPECIES_PREFERRED;
+    /** Int species with as many lanes as {@link #DOUBLE}, for int to double conversion. */
+    private static final VectorSpecies<Integer> INT_HALF =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLE.vectorBitSize() / 2));
+
+    private final ScalarBulkArithmetic tail = new ScalarBulkArithmetic();
+
+    @Override
+    public void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        int upper = INT.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INT.length()) {
+            IntVector.fromArray(INT, a, aOffset + i)
+                    .add(IntVector.fromArray(INT, b, bOffset + i))
+                    .intoArray(out, outOffset + i);
+        }
+        tail.add(a, aOffset + i, b, bOffset + i, out, outOffset + i, length - i);
+    }
+
+    @Override
+    public void subtract(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        int upper = INT.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INT.length()) {
+            IntVector.fromArray(INT, a, aOffset + i)
+                    .sub(IntVector.fromArray(INT, b, bOffset + i))
+                    .intoArray(out, outOffset + i);
+        }
+        tail.subtract(a, aOffset + i, b, bOffset + i, out, outOffset + i, length - i);
+    }
+
+    @Override
+    public void multiply(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        int upper = INT.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INT.length()) {
+            IntVector.fromArray(INT, a, aOffset + i)
+                    .mul(IntVector.fromArray(INT, b, bOffset + i))
+                    .intoArray(out, outOffset + i);
+        }
+        tail.multiply(a, aOffset + i, b, bOffset + i, out, outOffset + i, length - i);
+    }
+
+    @Override
+    public void divide(int[] a, int aOffset, int[] b, int bOffset, double[] out, int outOffset, int length) {
+        int upper = INT_HALF.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INT_HALF.length()) {
+            IntVector divisors = IntVector.fromArray(INT_HALF, b, bOffset + i);
+            if (divisors.eq(0).anyTrue()) {
+                throw new IllegalArgumentException("Cannot divide by zero");
+            }
+            DoubleVector dividend = (DoubleVector) IntVector.fromArray(INT_HALF, a, aOffset + i)
+                    .convertShape(VectorOperators.I2D, DOUBLE, 0);
+            DoubleVector divisor = (DoubleVector) divisors.convertShape(VectorOperators.I2D, DOUBLE, 0);
+            dividend.div(divisor).intoArray(out, outOffset + i);
+        }
+        tail.divide(a, aOffset + i, b, bOffset + i, out, outOffset + i, length - i);
+    }
+
+    @Override
+    public void isEven(int[] values, int offset, int length, long[] bitmap) {
+        // Lane counts are powers of two up to 16, so each vector fills part of exactly one word
+        int upper = INT.loopBound(length);
+        Arrays.fill(bitmap, 0, (length + 63) >>> 6, 0L);
+        int i = 0;
+        for (; i < upper; i += INT.length()) {
+            VectorMask<Integer> even = IntVector.fromArray(INT, values, offset + i)
+                    .and(1)
+                    .eq(0);
+            bitmap[i >>> 6] |= even.toLong() << i;
+        }
+        for (; i < length; i++) {
+            bitmap[i >>> 6] |= (long) (~values[offset + i] & 1) << i;
+        }
+    }
+}
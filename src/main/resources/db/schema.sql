@@ -0,0 +1,22 @@
+-- Schema for the fast and persistent profiles, which validate instead of letting
+-- Hibernate update it. Keep in sync with User and OutboxEvent.
+
+create table if not exists users (
+    id bigint not null,
+    email varchar(255),
+    name varchar(255),
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+-- Databases created before users were versioned
+alter table users add column if not exists version bigint default 0 not null;
+
+create table if not exists user_outbox (
+    id bigint not null,
+    aggregate_id bigint,
+    created_at timestamp(6) with time zone,
+    event_type varchar(255),
+    payload varchar(4000),
+    primary key (id)
+);
@@ -0,0 +1,164 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the asynchronous UserService facade, with a mocked
+ * UserService whose calls block until released
+ */
+class AsyncUserServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @AfterEach
+    void releaseCalls() {
+        release.countDown();
+    }
+
+    private <T> T blockingCall(T result) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            release.await();
+            return result;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run independent calls in parallel")
+    void testParallel() throws Exception {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 10, Duration.ofSeconds(10));
+        User user = new User(1L, "Ada", "ada@example.com");
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        when(userService.findById(1L)).thenAnswer(invocation -> {
+            bothRunning.countDown();
+            return blockingCall(Optional.of(user));
+        });
+        when(userService.getUserCount()).thenAnswer(invocation -> {
+            bothRunning.countDown();
+            return blockingCall(42);
+        });
+
+        // Act
+        CompletableFuture<Optional<User>> found = async.findByIdAsync(1L);
+        CompletableFuture<Integer> count = async.getUserCountAsync();
+
+        // Assert
+        assertTrue(bothRunning.await(5, TimeUnit.SECONDS), "both calls run at the same time");
+        release.countDown();
+        assertEquals(user, found.get(5, TimeUnit.SECONDS).orElseThrow());
+        assertEquals(42, count.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should run at most max-concurrency calls at a time")
+    void testBounded() throws Exception {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 2, Duration.ofSeconds(10));
+        when(userService.getUserCount()).thenAnswer(invocation -> blockingCall(1));
+
+        // Act
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[6];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = async.getUserCountAsync();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        CompletableFuture.allOf(calls).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(2, maxRunning.get());
+        verify(userService, times(6)).getUserCount();
+    }
+
+    @Test
+    @DisplayName("Should fail a call that exceeds the timeout")
+    void testTimeout() {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 10, Duration.ofMillis(50));
+        when(userService.getUserCount()).thenAnswer(invocation -> blockingCall(1));
+
+        // Act
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> async.getUserCountAsync().get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should never run a call cancelled while waiting for a slot")
+    void testCancelWaiting() throws Exception {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 1, Duration.ofSeconds(10));
+        when(userService.getUserCount()).thenAnswer(invocation -> blockingCall(1));
+        CompletableFuture<Integer> first = async.getUserCountAsync();
+        CompletableFuture<Optional<User>> waiting = async.findByIdAsync(1L);
+
+        // Act
+        waiting.cancel(true);
+        release.countDown();
+
+        // Assert
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, waiting::join);
+        assertEquals(1, async.getUserCountAsync().get(5, TimeUnit.SECONDS), "the slot was given back");
+        verify(userService, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should complete the future with the exception of a failed call")
+    void testFailure() {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 10, Duration.ofSeconds(10));
+        when(userService.createUser("", "x@example.com")).thenThrow(new IllegalArgumentException("Name cannot be empty"));
+
+        // Act
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> async.createUserAsync("", "x@example.com").get(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should count the SQL of a call towards the caller's scope")
+    void testSqlStatisticsPropagation() throws Exception {
+        // Arrange
+        AsyncUserService async = new AsyncUserService(userService, 10, Duration.ofSeconds(10));
+        when(userService.deleteUser(1L)).thenAnswer(invocation -> {
+            SqlStatistics.statementExecuted("delete from users where id = ?", 1_000);
+            return true;
+        });
+
+        // Act
+        SqlCounts counts;
+        try (SqlStatistics.Scope scope = SqlStatistics.open(false)) {
+            assertTrue(async.deleteUserAsync(1L).get(5, TimeUnit.SECONDS));
+            counts = scope.counts();
+        }
+
+        // Assert
+        assertEquals(1, counts.statements());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk Calculator operations versus the per-element loop pricing jobs use
+ * today, with the Vector API and with the scalar fallback.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CalculatorBulk
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CalculatorBulkBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private final Calculator vector = new Calculator();
+    private final Calculator scalar = new Calculator(new ScalarBulkArithmetic());
+
+    private int[] a;
+    private int[] b;
+    private int[] intOut;
+    private double[] doubleOut;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        a = new int[size];
+        b = new int[size];
+        for (int i = 0; i < size; i++) {
+            a[i] = random.nextInt();
+            b[i] = random.nextInt(1, Integer.MAX_VALUE);
+        }
+        intOut = new int[size];
+        doubleOut = new double[size];
+    }
+
+    @Benchmark
+    public int[] addPerElementLoop() {
+        for (int i = 0; i < size; i++) {
+            intOut[i] = vector.add(a[i], b[i]);
+        }
+        return intOut;
+    }
+
+    @Benchmark
+    public int[] addBulkScalar() {
+        scalar.add(a, b, intOut);
+        return intOut;
+    }
+
+    @Benchmark
+    public int[] addBulkVector() {
+        vector.add(a, b, intOut);
+        return intOut;
+    }
+
+    @Benchmark
+    public double[] dividePerElementLoop() {
+        for (int i = 0; i < size; i++) {
+            doubleOut[i] = vector.divide(a[i], b[i]);
+        }
+        return doubleOut;
+    }
+
+    @Benchmark
+    public double[] divideBulkVector() {
+        vector.divide(a, b, doubleOut);
+        return doubleOut;
+    }
+
+    @Benchmark
+    public long isEvenPerElementLoop() {
+        long evens = 0;
+        for (int i = 0; i < size; i++) {
+            if (vector.isEven(a[i])) {
+                evens++;
+            }
+        }
+        return evens;
+    }
+
+    @Benchmark
+    public long[] isEvenBitmapScalar() {
+        return scalar.isEven(a);
+    }
+
+    @Benchmark
+    public long[] isEvenBitmapVector() {
+        return vector.isEven(a);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CalculatorBulkBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the element-wise array and buffer operations of Calculator.
+ * Both the Vector API and the scalar fallback must match the scalar methods.
+ */
+class CalculatorBulkTest {
+
+    private final Calculator scalar = new Calculator();
+
+    static Stream<Calculator> calculators() {
+        return Stream.of(new Calculator(), new Calculator(new ScalarBulkArithmetic()));
+    }
+
+    /** Lengths around vector boundaries plus a large one */
+    private static final int[] LENGTHS = IntStream.concat(IntStream.rangeClosed(0, 70), IntStream.of(1000, 4099)).toArray();
+
+    private static int[] random(Random random, int length, boolean nonZero) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            int value = random.nextInt();
+            values[i] = nonZero && value == 0 ? 1 : value;
+        }
+        return values;
+    }
+
+    @Test
+    @DisplayName("Should use the Vector API when the incubator module is present")
+    void testVectorImplementationSelected() {
+        assertInstanceOf(VectorBulkArithmetic.class, BulkArithmetic.INSTANCE);
+    }
+
+    @ParameterizedTest
+    @MethodSource("calculators")
+    @DisplayName("Should add, subtract and multiply arrays like the scalar methods, overflow included")
+    void testIntOperations(Calculator calculator) {
+        Random random = new Random(42);
+        for (int length : LENGTHS) {
+            int[] a = random(random, length, false);
+            int[] b = random(random, length, false);
+            int[] sum = new int[length];
+            int[] difference = new int[length];
+            int[] product = new int[length];
+
+            calculator.add(a, b, sum);
+            calculator.subtract(a, b, difference);
+            calculator.multiply(a, b, product);
+
+            for (int i = 0; i < length; i++) {
+                assertEquals(scalar.add(a[i], b[i]), sum[i]);
+                assertEquals(scalar.subtract(a[i], b[i]), difference[i]);
+                assertEquals(scalar.multiply(a[i], b[i]), product[i]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("calculators")
+    @DisplayName("Should divide arrays into doubles like the scalar method")
+    void testDivide(Calculator calculator) {
+        Random random = new Random(7);
+        for (int length : LENGTHS) {
+            int[] a = random(random, length, false);
+            int[] b = random(random, length, true);
+            double[] quotient = new double[length];
+
+            calculator.divide(a, b, quotient);
+
+            for (int i = 0; i < length; i++) {
+                assertEquals(scalar.divide(a[i], b[i]), quotient[i]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("calculators")
+    @DisplayName("Should reject a zero divisor anywhere in the array")
+    void testDivideByZero(Calculator calculator) {
+        for (int position : new int[] {0, 5, 63, 99}) {
+            int[] a = new int[100];
+            int[] b = new int[100];
+            Arrays.fill(b, 3);
+            b[position] = 0;
+
+            Exception exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> calculator.divide(a, b, new double[100])
+            );
+            assertEquals("Cannot divide by zero", exception.getMessage());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("calculators")
+    @DisplayName("Should build an even bitmap matching isEven, negatives included")
+    void testIsEvenBitmap(Calculator calculator) {
+        Random random = new Random(3);
+        for (int length : LENGTHS) {
+            int[] values = random(random, length, false);
+
+            long[] bitmap = calculator.isEven(values);
+
+            assertEquals((length + 63) / 64, bitmap.length);
+            for (int i = 0; i < length; i++) {
+                boolean bit = (bitmap[i / 64] & (1L << (i % 64))) != 0;
+                assertEquals(scalar.isEven(values[i]), bit, "element " + i + " = " + values[i]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject operands of different lengths")
+    void testLengthMismatch() {
+        assertThrows(IllegalArgumentException.class, () -> scalar.add(new int[3], new int[2], new int[3]));
+        assertThrows(IllegalArgumentException.class, () -> scalar.add(new int[3], new int[3], new int[2]));
+    }
+
+    @Test
+    @DisplayName("Should operate on heap and direct buffers from their positions")
+    void testBuffers() {
+        int[] a = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        int[] b = {10, 9, 8, 7, 6, 5, 4, 3, 2, 1};
+
+        IntBuffer heapA = IntBuffer.wrap(a).position(2);
+        IntBuffer heapB = IntBuffer.wrap(b).position(2);
+        IntBuffer heapOut = IntBuffer.allocate(8);
+        scalar.add(heapA, heapB, heapOut);
+        assertEquals(11, heapOut.get(0));
+        assertEquals(2, heapA.position(), "positions are not modified");
+
+        IntBuffer directA = ByteBuffer.allocateDirect(40).asIntBuffer().put(a).flip();
+        IntBuffer directB = ByteBuffer.allocateDirect(40).asIntBuffer().put(b).flip();
+        IntBuffer directOut = ByteBuffer.allocateDirect(40).asIntBuffer();
+        scalar.multiply(directA, directB, directOut);
+        assertEquals(10, directOut.get(0));
+        assertEquals(18, directOut.get(8));
+
+        DoubleBuffer quotient = DoubleBuffer.allocate(10);
+        scalar.divide(directA, directB, quotient);
+        assertEquals(0.1, quotient.get(0));
+
+        long[] bitmap = scalar.isEven(directA);
+        assertEquals(0b1010101010L, bitmap[0]);
+        assertArrayEquals(bitmap, scalar.isEven(IntBuffer.wrap(a)));
+    }
+}
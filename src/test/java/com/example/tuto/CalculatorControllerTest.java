@@ -0,0 +1,63 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testing the expression endpoint with MockMvc and the real ExpressionService
+ */
+@WebMvcTest(CalculatorController.class)
+@Import(ExpressionService.class)
+class CalculatorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("POST /api/calc/eval - Should evaluate a single binding")
+    void testEvaluate() throws Exception {
+        mockMvc.perform(post("/api/calc/eval")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\":\"a * (b + 2)\",\"variables\":{\"a\":3,\"b\":4}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(18.0))
+                .andExpect(jsonPath("$.results").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /api/calc/eval - Should evaluate a batch of bindings")
+    void testBatch() throws Exception {
+        mockMvc.perform(post("/api/calc/eval")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\":\"x / 2\",\"bindings\":[{\"x\":1},{\"x\":4},{\"x\":-6}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(3)))
+                .andExpect(jsonPath("$.results[0]").value(0.5))
+                .andExpect(jsonPath("$.results[2]").value(-3.0));
+    }
+
+    @Test
+    @DisplayName("POST /api/calc/eval - Should return 400 for invalid input")
+    void testBadRequest() throws Exception {
+        mockMvc.perform(post("/api/calc/eval")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\":\"1 / 0\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Cannot divide by zero"));
+
+        mockMvc.perform(post("/api/calc/eval")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expression\":\"a +\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", startsWith("Unexpected end")));
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.tuto;
 
 import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -116,6 +120,29 @@ class CalculatorTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests for decimal division")
+    class DecimalDivisionTests {
+
+        @Test
+        void testDivideWithScaleAndRounding() {
+            assertEquals(new BigDecimal("0.67"), calculator.divide(2, 3, 2, RoundingMode.HALF_UP));
+            assertEquals(new BigDecimal("0.66"), calculator.divide(2, 3, 2, RoundingMode.DOWN));
+        }
+
+        @Test
+        void testDivideWithMathContext() {
+            assertEquals(new BigDecimal("0.3333333333333333333333333333333333"),
+                calculator.divide(1, 3, MathContext.DECIMAL128));
+        }
+
+        @Test
+        void testDecimalDivideByZero() {
+            assertThrows(IllegalArgumentException.class,
+                () -> calculator.divide(1, 0, 2, RoundingMode.HALF_UP));
+        }
+    }
+
     // This test is disabled - useful when you're still working on something
     @Test
     @Disabled("Not implemented yet")
@@ -0,0 +1,95 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserRepository.findById latency and heap footprint: the JPA repository
+ * over the in-memory H2 database against CompactUserRepository.
+ *
+ * Setup prints the heap retained by the loaded users (used heap after a full
+ * GC, before and after loading). Caches are off, so every H2 lookup goes
+ * through Hibernate to the database.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CompactUserRepository
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CompactUserRepositoryBenchmark {
+
+    private static final int USERS = 500_000;
+
+    @Param({"h2", "compact"})
+    public String store;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TutoApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:mem:compact-benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--tuto.near-cache.enabled=false",
+                "--tuto.jfr.enabled=false",
+                "--tuto.users.store=" + ("compact".equals(store) ? "compact" : "jpa"),
+                "--logging.level.root=WARN");
+        userRepository = context.getBean(UserRepository.class);
+
+        long before = usedHeap();
+        if ("compact".equals(store)) {
+            for (long id = 1; id <= USERS; id++) {
+                userRepository.save(new User(id, "user" + id, "user" + id + "@example.com"));
+            }
+        } else {
+            context.getBean(JdbcTemplate.class).update(
+                "insert into users (id, name, email, version) "
+                    + "select x, 'user' || x, 'user' || x || '@example.com', 0 from system_range(1, " + USERS + ")");
+        }
+        long retained = usedHeap() - before;
+        System.out.printf("%n%s: %,d users retain %,d KB of heap (%d bytes per user)%n",
+            store, USERS, retained / 1024, retained / USERS);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findById() {
+        return userRepository.findById(ThreadLocalRandom.current().nextLong(1, USERS + 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompactUserRepositoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
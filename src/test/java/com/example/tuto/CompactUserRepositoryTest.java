@@ -0,0 +1,305 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.h2.Driver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the array-backed user store, mostly outside any transaction
+ */
+class CompactUserRepositoryTest {
+
+    private final CompactUserRepository repository = new CompactUserRepository(4);
+
+    @Test
+    @DisplayName("Should keep every user through index and column growth")
+    void testGrowth() {
+        // Arrange
+        for (long id = 1; id <= 10_000; id++) {
+            repository.save(new User(id * 4096, "user" + id, "user" + id + "@example.com"));
+        }
+
+        // Act
+        User user = repository.findById(7_777L * 4096).orElseThrow();
+
+        // Assert
+        assertEquals(10_000, repository.count());
+        assertEquals("user7777", user.getName());
+        assertEquals("user7777@example.com", user.getEmail());
+        assertFalse(repository.findById(4095L).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should find every remaining user after random deletes")
+    void testDeletes() {
+        // Arrange
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long id = random.nextLong();
+            if (id != Long.MIN_VALUE && !ids.contains(id)) {
+                ids.add(id);
+                repository.save(new User(id, "n" + i, "e" + i + "@example.com"));
+            }
+        }
+
+        // Act
+        List<Long> kept = new ArrayList<>();
+        for (Long id : ids) {
+            if (random.nextBoolean()) {
+                repository.deleteById(id);
+            } else {
+                kept.add(id);
+            }
+        }
+
+        // Assert
+        assertEquals(kept.size(), repository.count());
+        for (Long id : kept) {
+            assertEquals(id, repository.findById(id).orElseThrow().getId());
+        }
+        ids.stream().filter(id -> !kept.contains(id)).forEach(id -> assertFalse(repository.existsById(id)));
+    }
+
+    @Test
+    @DisplayName("Should store non-ASCII and null text")
+    void testText() {
+        // Arrange
+        repository.save(new User(1L, "Zoë Ørsted 日本", "zoë@example.com"));
+        repository.save(new User(2L, null, null));
+
+        // Act
+        User zoe = repository.findById(1L).orElseThrow();
+        User nobody = repository.findById(2L).orElseThrow();
+
+        // Assert
+        assertEquals("Zoë Ørsted 日本", zoe.getName());
+        assertEquals("zoë@example.com", zoe.getEmail());
+        assertNull(nobody.getName());
+        assertNull(nobody.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should reclaim the space of replaced text")
+    void testArenaCompaction() {
+        // Arrange
+        User user = repository.save(new User(1L, "first", "first@example.com"));
+        repository.save(new User(2L, "second", "second@example.com"));
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            user.setName("name-" + i);
+            user = repository.save(user);
+        }
+
+        // Assert
+        assertEquals("name-9999", repository.findById(1L).orElseThrow().getName());
+        assertEquals("second", repository.findById(2L).orElseThrow().getName());
+        assertEquals(10_000, user.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should keep the store intact when an update compacts a full arena")
+    void testUpdateCompactsFullArena() {
+        // Arrange: 24 of the 32 arena bytes in use, none of them dead
+        CompactUserRepository tiny = new CompactUserRepository(1);
+        User first = tiny.save(new User(1L, "abcdefgh", "ijklmnop"));
+        tiny.save(new User(2L, "qrst", "uvwx"));
+
+        // Act
+        first.setName("ABCDEFGH");
+        tiny.save(first);
+        User third = tiny.save(new User(3L, "third", "third@example.com"));
+
+        // Assert
+        assertEquals("ABCDEFGH", tiny.findById(1L).orElseThrow().getName());
+        assertEquals("ijklmnop", tiny.findById(1L).orElseThrow().getEmail());
+        assertEquals(1, tiny.findById(1L).orElseThrow().getVersion());
+        assertEquals("qrst", tiny.findById(2L).orElseThrow().getName());
+        assertEquals("third@example.com", tiny.findById(third.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    @DisplayName("Should reject stale versions and duplicate ids")
+    void testConflicts() {
+        // Arrange
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        User first = repository.findById(1L).orElseThrow();
+        User second = repository.findById(1L).orElseThrow();
+        first.setName("Ada Lovelace");
+        repository.save(first);
+
+        // Act & Assert
+        second.setName("Ada King");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.save(second));
+        assertThrows(DuplicateKeyException.class, () -> repository.save(new User(1L, "Other", "other@example.com")));
+        assertEquals("Ada Lovelace", repository.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Should multi-load in request order with nulls for unknown ids")
+    void testMultiLoad() {
+        // Arrange
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+
+        // Act
+        List<User> users = repository.multiLoad(List.of(2L, 3L, 1L), 100);
+
+        // Assert
+        assertEquals("Grace", users.get(0).getName());
+        assertNull(users.get(1));
+        assertEquals("Ada", users.get(2).getName());
+        assertEquals(2, repository.findAllById(Arrays.asList(1L, 2L, 3L)).size());
+    }
+
+    @Test
+    @DisplayName("Should sort and page all users")
+    void testSortAndPage() {
+        // Arrange
+        repository.save(new User(3L, "Carol", "carol@example.com"));
+        repository.save(new User(1L, "Alice", "alice@example.com"));
+        repository.save(new User(2L, "Bob", "bob@example.com"));
+
+        // Act
+        Page<User> page = repository.findAll(PageRequest.of(1, 2, Sort.by("name").descending()));
+
+        // Assert
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("Alice"), page.getContent().stream().map(User::getName).toList());
+        assertEquals(List.of(1L, 2L, 3L), repository.findAll(Sort.by("id")).stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should drop the writes of a rolled back transaction, but not writes others committed meanwhile")
+    void testRollback() {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+        repository.save(new User(3L, "Carol", "carol@example.com"));
+
+        // Act
+        transactions.executeWithoutResult(status -> {
+            User ada = repository.findById(1L).orElseThrow();
+            ada.setName("Ada Lovelace");
+            repository.save(ada);
+            repository.save(ada);
+            repository.deleteById(2L);
+            repository.save(new User(4L, "Dan", "dan@example.com"));
+            repository.save(repository.findById(3L).orElseThrow());
+            // Another writer updates Carol before the rollback
+            CompletableFuture.runAsync(() -> {
+                User carol = repository.findById(3L).orElseThrow();
+                carol.setName("Carol Shaw");
+                repository.save(carol);
+            }).join();
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        User ada = repository.findById(1L).orElseThrow();
+        assertEquals("Ada", ada.getName());
+        assertEquals(0, ada.getVersion());
+        assertEquals("Grace", repository.findById(2L).orElseThrow().getName());
+        assertFalse(repository.existsById(4L));
+        assertEquals("Carol Shaw", repository.findById(3L).orElseThrow().getName());
+        assertEquals(3, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should keep every user after a rolled back deleteAll")
+    void testRollbackDeleteAll() {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+
+        // Act
+        transactions.executeWithoutResult(status -> {
+            repository.save(new User(3L, "Carol", "carol@example.com"));
+            repository.deleteAll();
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(List.of("Ada", "Grace"), repository.findAll(Sort.by("id")).stream().map(User::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Should show a transaction its own writes and other threads none before the commit")
+    void testUncommittedWritesInvisible() {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+
+        // Act
+        List<String> inside = new ArrayList<>();
+        List<String> outside = new ArrayList<>();
+        transactions.executeWithoutResult(status -> {
+            User ada = repository.findById(1L).orElseThrow();
+            ada.setName("Ada Lovelace");
+            repository.save(ada);
+            repository.deleteById(2L);
+            repository.save(new User(3L, "Carol", "carol@example.com"));
+            inside.addAll(repository.findAll(Sort.by("id")).stream().map(User::getName).toList());
+            inside.add(String.valueOf(repository.count()));
+            CompletableFuture.runAsync(() -> {
+                outside.addAll(repository.findAll(Sort.by("id")).stream().map(User::getName).toList());
+                outside.add(String.valueOf(repository.count()));
+            }).join();
+        });
+
+        // Assert
+        assertEquals(List.of("Ada Lovelace", "Carol", "2"), inside);
+        assertEquals(List.of("Ada", "Grace", "2"), outside);
+        assertEquals(List.of("Ada Lovelace", "Carol"),
+            repository.findAll(Sort.by("id")).stream().map(User::getName).toList());
+        assertEquals(1, repository.findById(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should fail the commit, applying nothing, when another writer committed first")
+    void testConflictAtCommit() {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactions.executeWithoutResult(status -> {
+            repository.save(new User(2L, "Grace", "grace@example.com"));
+            User ada = repository.findById(1L).orElseThrow();
+            ada.setName("Ada Lovelace");
+            repository.save(ada);
+            CompletableFuture.runAsync(() -> {
+                User other = repository.findById(1L).orElseThrow();
+                other.setName("Ada King");
+                repository.save(other);
+            }).join();
+        }));
+        assertEquals("Ada King", repository.findById(1L).orElseThrow().getName());
+        assertFalse(repository.existsById(2L));
+        assertEquals(1, repository.count());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the UserService contract against the compact in-memory store.
+ * Writes of the rolled back test transaction never reach the store, but
+ * those of tests that commit do, so the store is emptied after each test.
+ */
+@Import(CompactUserRepository.class)
+@TestPropertySource(properties = "tuto.users.store=compact")
+class CompactUserServiceTest extends UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearStore() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should keep users out of the database")
+    void testUsesCompactStore() {
+        userService.createUser("Ada", "ada@example.com");
+
+        assertInstanceOf(CompactUserRepository.class, userRepository);
+        assertEquals(1, userService.getUserCount());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from users", Integer.class));
+    }
+}
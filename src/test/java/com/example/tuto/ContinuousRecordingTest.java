@@ -0,0 +1,93 @@
+package com.example.tuto;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the continuous JFR recording and its time-window dumps
+ */
+class ContinuousRecordingTest {
+
+    @Test
+    @DisplayName("Should dump recorded user events to a readable file")
+    void testDumpContainsEvents() throws IOException {
+        try (ContinuousRecording recording = new ContinuousRecording(Duration.ofMinutes(5), 10_000_000, Duration.ZERO)) {
+            // Arrange
+            recording.start();
+            long userId = System.nanoTime();
+            commitServiceCall(userId);
+
+            // Act
+            Path dump = recording.dump(Duration.ofMinutes(1));
+
+            // Assert
+            try {
+                assertTrue(recording.isRunning());
+                RecordedEvent event = serviceCalls(dump, userId).get(0);
+                assertEquals("UserService.findById", event.getString("operation"));
+                assertEquals("ok", event.getString("outcome"));
+                assertEquals(Duration.ofMillis(3), event.getDuration("dbTime"));
+            } finally {
+                Files.deleteIfExists(dump);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave out events older than the requested window")
+    void testDumpWindow() throws IOException {
+        // Arrange: a clock ten minutes ahead makes every event older than a 1 minute window
+        Clock future = Clock.fixed(Instant.now().plus(Duration.ofMinutes(10)), ZoneOffset.UTC);
+        try (ContinuousRecording recording =
+                 new ContinuousRecording(Duration.ofMinutes(30), 10_000_000, Duration.ZERO, future)) {
+            recording.start();
+            long userId = System.nanoTime();
+            commitServiceCall(userId);
+
+            // Act
+            Path window = recording.dump(Duration.ofMinutes(1));
+            Path everything = recording.dump(null);
+
+            // Assert
+            try {
+                assertTrue(serviceCalls(window, userId).isEmpty());
+                assertEquals(1, serviceCalls(everything, userId).size());
+            } finally {
+                Files.deleteIfExists(window);
+                Files.deleteIfExists(everything);
+            }
+        }
+    }
+
+    private static void commitServiceCall(long userId) {
+        UserServiceCallEvent event = new UserServiceCallEvent();
+        event.begin();
+        event.operation = "UserService.findById";
+        event.userId = userId;
+        event.outcome = "ok";
+        event.sqlStatements = 1;
+        event.sqlRows = 1;
+        event.dbTime = Duration.ofMillis(3).toNanos();
+        event.commit();
+    }
+
+    private static List<RecordedEvent> serviceCalls(Path dump, long userId) throws IOException {
+        return RecordingFile.readAllEvents(dump).stream()
+            .filter(e -> e.getEventType().getName().equals("com.example.tuto.UserServiceCall"))
+            .filter(e -> e.getLong("userId") == userId)
+            .toList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row throughput of the CSV chunk processor on 100k in-memory rows.
+ * Run with the GC profiler: gc.alloc.rate.norm should stay flat as rows grow,
+ * i.e. allocation does not scale with the row count.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CsvBatch "-Dbenchmark.args=-prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvBatchCalculatorBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ByteBuffer input;
+    private CsvBatchCalculator.ChunkProcessor processor;
+    private final CsvBatchCalculatorTest.DiscardingChannel discard = new CsvBatchCalculatorTest.DiscardingChannel();
+
+    @Setup
+    public void setup() {
+        input = CsvBatchCalculatorTest.randomRows(rows);
+        processor = new CsvBatchCalculator.ChunkProcessor(new Calculator(), ByteBuffer.allocateDirect(256 << 10));
+    }
+
+    @Benchmark
+    public long processRows() throws IOException {
+        processor.process(input.duplicate(), discard);
+        return processor.errors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CsvBatchCalculatorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the memory-mapped CSV pipeline
+ */
+class CsvBatchCalculatorTest {
+
+    private static final String INPUT = String.join("\n",
+        "1,2,add",
+        " -7 , 3 , subtract ",
+        "6,7,*",
+        "7,2,divide",
+        "-1,3,/",
+        "1,0,divide",
+        "a,b,op",
+        "2147483648,1,add",
+        "1,2,modulo",
+        "",
+        "2147483647,1,+",
+        "-2147483648,-1,/") + "\n";
+
+    private static final String EXPECTED = String.join("\n",
+        "3",
+        "-10",
+        "42",
+        "3.500000",
+        "-0.333333",
+        "ERR",
+        "ERR",
+        "ERR",
+        "ERR",
+        "-2147483648",
+        "2147483648.000000") + "\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should evaluate each row and mark bad rows as ERR")
+    void testProcess() throws Exception {
+        // Arrange
+        Path input = write("input.csv", INPUT);
+        Path output = tempDir.resolve("output.csv");
+
+        // Act
+        CsvBatchResult result = new CsvBatchCalculator().process(input, output);
+
+        // Assert
+        assertEquals(EXPECTED, Files.readString(output));
+        assertEquals(new CsvBatchResult(11, 4), result);
+    }
+
+    @ParameterizedTest(name = "chunk size {0}")
+    @ValueSource(ints = {1, 5, 16, 1 << 20})
+    @DisplayName("Should produce the same output for any chunking")
+    void testChunking(int chunkSize) throws Exception {
+        // Arrange - CRLF line endings and no trailing newline
+        Path input = write("input.csv", INPUT.replace("\n", "\r\n").stripTrailing());
+        Path output = tempDir.resolve("output.csv");
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        // Act
+        try {
+            new CsvBatchCalculator(pool, chunkSize).process(input, output);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert
+        assertEquals(EXPECTED, Files.readString(output));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "part files should be removed");
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle an empty file")
+    void testEmpty() throws Exception {
+        Path output = tempDir.resolve("output.csv");
+
+        CsvBatchResult result = new CsvBatchCalculator().process(write("input.csv", ""), output);
+
+        assertEquals(new CsvBatchResult(0, 0), result);
+        assertEquals("", Files.readString(output));
+    }
+
+    @Test
+    @DisplayName("Should not allocate per row after warm-up")
+    void testZeroAllocationPerRow() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // Arrange
+        ByteBuffer rows = randomRows(200_000);
+        CsvBatchCalculator.ChunkProcessor processor =
+            new CsvBatchCalculator.ChunkProcessor(new Calculator(), ByteBuffer.allocateDirect(64 << 10));
+        WritableByteChannel discard = new DiscardingChannel();
+        for (int i = 0; i < 20; i++) {
+            processor.process(rows.duplicate(), discard);
+        }
+        ByteBuffer input = rows.duplicate();
+        long threadId = Thread.currentThread().threadId();
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        processor.process(input, discard);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertEquals(21 * 200_000L, processor.rows);
+        assertTrue(allocated < 4096, "allocated " + allocated + " bytes for 200000 rows");
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    static ByteBuffer randomRows(int count) {
+        String[] operations = {"add", "subtract", "multiply", "divide", "+", "-", "*", "/"};
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            csv.append(random.nextInt()).append(',').append(random.nextInt(2001) - 1000).append(',')
+               .append(operations[random.nextInt(operations.length)]).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.US_ASCII);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    /** Accepts and drops everything without allocating */
+    static final class DiscardingChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
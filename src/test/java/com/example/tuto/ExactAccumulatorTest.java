@@ -0,0 +1,97 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for overflow-safe sums and products
+ */
+class ExactAccumulatorTest {
+
+    private final Calculator calculator = new Calculator();
+
+    @Test
+    @DisplayName("Should stay on the long fast path while the value fits")
+    void testFastPath() {
+        ExactAccumulator sum = ExactAccumulator.ofSum().add(40).add(2);
+
+        assertTrue(sum.fitsInLong());
+        assertEquals(42, sum.longValueExact());
+    }
+
+    @Test
+    @DisplayName("Should escalate to BigInteger when a sum overflows long")
+    void testSumOverflow() {
+        ExactAccumulator sum = ExactAccumulator.ofSum().add(Long.MAX_VALUE).add(Long.MAX_VALUE).add(2);
+
+        assertFalse(sum.fitsInLong());
+        assertEquals(BigInteger.ONE.shiftLeft(64), sum.toBigInteger());
+        assertThrows(ArithmeticException.class, sum::longValueExact);
+    }
+
+    @Test
+    @DisplayName("Should detect negative overflow")
+    void testNegativeOverflow() {
+        ExactAccumulator sum = ExactAccumulator.of(Long.MIN_VALUE).add(-1);
+
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE), sum.toBigInteger());
+    }
+
+    @Test
+    @DisplayName("Should escalate to BigInteger when a product overflows long")
+    void testProductOverflow() {
+        ExactAccumulator product = ExactAccumulator.ofProduct();
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 1; i <= 30; i++) {
+            product.multiply(i);
+            expected = expected.multiply(BigInteger.valueOf(i));
+        }
+
+        assertFalse(product.fitsInLong());
+        assertEquals(expected, product.toBigInteger());
+        assertEquals(BigInteger.ZERO, product.multiply(0).toBigInteger());
+    }
+
+    @Test
+    @DisplayName("Should combine partial accumulators")
+    void testCombine() {
+        ExactAccumulator left = ExactAccumulator.of(Long.MAX_VALUE).add(1);
+        ExactAccumulator right = ExactAccumulator.of(-1);
+
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE), left.add(right).toBigInteger());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).negate(), left.multiply(right).toBigInteger());
+    }
+
+    @Test
+    @DisplayName("Calculator should widen scalar add and multiply instead of overflowing")
+    void testCalculatorScalarExact() {
+        assertEquals(-2, calculator.add(Integer.MAX_VALUE, Integer.MAX_VALUE), "int add wraps");
+        assertEquals(2L * Integer.MAX_VALUE, calculator.addExact(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals((long) Integer.MIN_VALUE * Integer.MIN_VALUE,
+            calculator.multiplyExact(Integer.MIN_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("Calculator should sum and multiply arrays exactly")
+    void testCalculatorArrays() {
+        int[] ints = new int[1000];
+        Arrays.fill(ints, Integer.MAX_VALUE);
+        assertEquals(BigInteger.valueOf(Integer.MAX_VALUE).multiply(BigInteger.valueOf(1000)),
+            calculator.sumExact(ints).toBigInteger());
+
+        long[] longs = new Random(5).longs(1000).toArray();
+        BigInteger expectedSum = Arrays.stream(longs).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO, BigInteger::add);
+        assertEquals(expectedSum, calculator.sumExact(longs).toBigInteger());
+
+        int[] factors = {1 << 20, 1 << 20, 1 << 20, 3};
+        assertEquals(BigInteger.ONE.shiftLeft(60).multiply(BigInteger.valueOf(3)),
+            calculator.productExact(factors).toBigInteger());
+        assertEquals(BigInteger.valueOf(-6), calculator.productExact(new long[] {-1, 2, 3}).toBigInteger());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of overflow safety when nothing overflows: the checked long path of
+ * {@link ExactAccumulator} against an unchecked primitive loop and against
+ * pre-widening every value to BigInteger.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=ExactArithmetic
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ExactArithmeticBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    private final Calculator calculator = new Calculator();
+    private int[] ints;
+    private long[] longs;
+    /** Mostly ones, so the product stays within a long */
+    private int[] factors;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        ints = random.ints(SIZE).toArray();
+        longs = random.longs(SIZE, -1_000_000_000L, 1_000_000_000L).toArray();
+        factors = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            factors[i] = i % 10_000 == 0 ? 3 : 1;
+        }
+    }
+
+    @Benchmark
+    public long sumIntsUnchecked() {
+        long sum = 0;
+        for (int value : ints) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ExactAccumulator sumIntsExact() {
+        return calculator.sumExact(ints);
+    }
+
+    @Benchmark
+    public BigInteger sumIntsBigInteger() {
+        BigInteger sum = BigInteger.ZERO;
+        for (int value : ints) {
+            sum = sum.add(BigInteger.valueOf(value));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumLongsUnchecked() {
+        long sum = 0;
+        for (long value : longs) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ExactAccumulator sumLongsExact() {
+        return calculator.sumExact(longs);
+    }
+
+    @Benchmark
+    public long productUnchecked() {
+        long product = 1;
+        for (int value : factors) {
+            product *= value;
+        }
+        return product;
+    }
+
+    @Benchmark
+    public ExactAccumulator productExact() {
+        return calculator.productExact(factors);
+    }
+
+    @Benchmark
+    public BigInteger productBigInteger() {
+        BigInteger product = BigInteger.ONE;
+        for (int value : factors) {
+            product = product.multiply(BigInteger.valueOf(value));
+        }
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExactArithmeticBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of evaluating one expression against 1000 bindings: parsing every
+ * time, a cache lookup per binding, and a single batch call.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=Expression
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    private static final String EXPRESSION = "(price * qty - discount) * (1 + tax / 100)";
+
+    private final ExpressionService service = new ExpressionService(1024);
+    private List<Map<String, Double>> bindings;
+
+    @Setup
+    public void setup() {
+        bindings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bindings.add(Map.of("price", 9.99 + i, "qty", (double) (i % 7), "discount", 1.0, "tax", 20.0));
+        }
+    }
+
+    @Benchmark
+    public double parseEveryTime() {
+        double total = 0;
+        for (Map<String, Double> binding : bindings) {
+            total += ExpressionCompiler.compile(EXPRESSION).evaluate(binding);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double cachedPerBinding() {
+        double total = 0;
+        for (Map<String, Double> binding : bindings) {
+            total += service.evaluate(EXPRESSION, binding);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        return service.evaluateBatch(EXPRESSION, bindings);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExpressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
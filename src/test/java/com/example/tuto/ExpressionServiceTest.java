@@ -0,0 +1,126 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for expression compilation and the compiled expression cache
+ */
+class ExpressionServiceTest {
+
+    private ExpressionService service;
+
+    @BeforeEach
+    void setup() {
+        service = new ExpressionService(2);
+    }
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @CsvSource(delimiter = '|', value = {
+        "1 + 2 * 3        | 7",
+        "(1 + 2) * 3      | 9",
+        "10 - 4 - 3       | 3",
+        "12 / 4 / 3       | 1",
+        "-2 * -3          | 6",
+        "-(2 + 3) * +4    | -20",
+        "1.5e2 / .5       | 300",
+        "7 / 2            | 3.5"
+    })
+    @DisplayName("Should respect precedence and associativity")
+    void testConstantExpressions(String expression, double expected) {
+        assertEquals(expected, service.evaluate(expression, Map.of()), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Should bind variables by name in first-seen order")
+    void testVariables() {
+        // Arrange
+        CompiledExpression compiled = service.compile("price * qty - discount + price");
+
+        // Act & Assert
+        assertEquals(List.of("price", "qty", "discount"), compiled.variables());
+        assertEquals(37.5, compiled.evaluate(Map.of("price", 2.5, "qty", 15, "discount", 2.5)), 1e-12);
+        assertEquals(37.5, compiled.evaluate(new double[] {2.5, 15, 2.5}), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Should match Calculator on division by zero")
+    void testDivideByZero() {
+        Exception runtime = assertThrows(IllegalArgumentException.class,
+            () -> service.evaluate("a / b", Map.of("a", 1, "b", 0)));
+        Exception folded = assertThrows(IllegalArgumentException.class,
+            () -> service.evaluate("1 / (2 - 2)", Map.of()));
+
+        assertEquals("Cannot divide by zero", runtime.getMessage());
+        assertEquals("Cannot divide by zero", folded.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "  ", "1 +", "(1 + 2", "1 + 2)", "2 ^ 3", "1..2", "a b"})
+    @DisplayName("Should reject malformed expressions")
+    void testMalformed(String expression) {
+        assertThrows(IllegalArgumentException.class, () -> service.compile(expression));
+    }
+
+    @Test
+    @DisplayName("Should reject missing variables and oversized input")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class, () -> service.evaluate("a + b", Map.of("a", 1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.compile("(".repeat(ExpressionCompiler.MAX_DEPTH + 1) + "1"
+                + ")".repeat(ExpressionCompiler.MAX_DEPTH + 1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.compile("1".repeat(ExpressionCompiler.MAX_LENGTH + 1)));
+    }
+
+    @Test
+    @DisplayName("Should evaluate the longest allowed operator chain")
+    void testLongChain() {
+        String expression = "x" + "+x".repeat((ExpressionCompiler.MAX_LENGTH - 1) / 2);
+
+        double result = service.evaluate(expression, Map.of("x", 1));
+
+        assertEquals((ExpressionCompiler.MAX_LENGTH - 1) / 2 + 1, result);
+    }
+
+    @Test
+    @DisplayName("Should compile once and reuse across a batch")
+    void testBatch() {
+        // Act
+        double[] results = service.evaluateBatch("a * b + 1",
+            List.of(Map.of("a", 2, "b", 3), Map.of("a", -1, "b", 4), Map.of("a", 0, "b", 0)));
+
+        // Assert
+        assertArrayEquals(new double[] {7, -3, 1}, results, 1e-12);
+        assertEquals(1, service.cacheMisses());
+        assertEquals(0, service.cacheHits());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used expression")
+    void testLruEviction() {
+        // Arrange
+        CompiledExpression first = service.compile("1 + 1");
+        service.compile("2 + 2");
+
+        // Act - touch the first so the second becomes eldest
+        assertSame(first, service.compile("1 + 1"));
+        service.compile("3 + 3");
+
+        // Assert
+        assertEquals(2, service.cacheSize());
+        assertSame(first, service.compile("1 + 1"));
+        assertEquals(3, service.cacheMisses());
+        service.compile("2 + 2");
+        assertEquals(4, service.cacheMisses());
+    }
+}
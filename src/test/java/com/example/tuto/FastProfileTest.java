@@ -0,0 +1,53 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application with the fast-start profile: lazy beans and a
+ * validated, script-created schema. Uses its own database so that relays
+ * of other cached test contexts cannot drain its outbox.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fast-profile;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("fast")
+class FastProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    @DisplayName("Should create beans lazily except the outbox relay")
+    void testLazyInitialization() {
+        assertFalse(context.getBeanFactory().containsSingleton("expressionService"));
+        assertTrue(context.getBeanFactory().containsSingleton("outboxRelay"));
+
+        context.getBean(ExpressionService.class);
+
+        assertTrue(context.getBeanFactory().containsSingleton("expressionService"));
+    }
+
+    @Test
+    @DisplayName("Should persist against the validated schema and relay on schedule")
+    void testSchemaAndRelay() throws Exception {
+        // Arrange
+        UserService userService = context.getBean(UserService.class);
+        InMemoryOutboxSink sink = context.getBean(InMemoryOutboxSink.class);
+
+        // Act
+        User user = userService.createUser("Fast Start", "fast@example.com");
+
+        // Assert - the scheduled relay picks the event up without being called
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (sink.getPublished().stream().noneMatch(e -> e.getAggregateId().equals(user.getId()))) {
+            assertTrue(System.nanoTime() < deadline, "relay did not run");
+            Thread.sleep(50);
+        }
+        assertTrue(userService.findById(user.getId()).isPresent());
+    }
+}
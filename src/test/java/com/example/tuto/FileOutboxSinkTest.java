@@ -0,0 +1,39 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the NDJSON file outbox sink
+ */
+class FileOutboxSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should append one JSON line per event across batches")
+    void testAppend() throws Exception {
+        Path file = tempDir.resolve("events/user-events.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file);
+
+        sink.publish(List.of(
+            new OutboxEvent(1L, 10L, "CREATED", "{\"userId\":10}", Instant.now()),
+            new OutboxEvent(2L, 10L, "UPDATED", "{\"userId\":10}", Instant.now())));
+        sink.publish(List.of(
+            new OutboxEvent(3L, 10L, "DELETED", "{\"userId\":10}", Instant.now())));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertEquals("{\"id\":1,\"type\":\"CREATED\",\"event\":{\"userId\":10}}", lines.get(0));
+        assertTrue(lines.get(2).contains("\"DELETED\""));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.tuto;
+
+import jakarta.persistence.EntityManagerFactory;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for the JFR events and the /actuator/jfr dump, which
+ * has to be exposed explicitly
+ */
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,metrics,jfr")
+@AutoConfigureMockMvc
+class FlightRecorderIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Should dump request and service events for offline analysis")
+    void testDumpContainsUserEvents() throws Exception {
+        // Arrange
+        User user = userService.createUser("Recorded", "recorded@example.com");
+        // Read from the database rather than the second-level cache, so the event has SQL counts
+        entityManagerFactory.getCache().evict(User.class, user.getId());
+        mockMvc.perform(get("/api/users/{id}", user.getId())).andExpect(status().isOk());
+
+        // Act
+        byte[] dump = mockMvc.perform(get("/actuator/jfr").param("minutes", "5"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        Path file = Files.createTempFile("tuto-test-", ".jfr");
+        try {
+            Files.write(file, dump);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.example.tuto."))
+                .filter(e -> e.getLong("userId") == user.getId())
+                .toList();
+
+            RecordedEvent request = find(events, "com.example.tuto.UserRequest");
+            assertEquals("GET", request.getString("method"));
+            assertEquals("/api/users/{id}", request.getString("route"));
+            assertEquals(200, request.getInt("status"));
+            assertEquals("ok", request.getString("outcome"));
+            assertEquals(1, request.getLong("sqlStatements"));
+
+            RecordedEvent created = events.stream()
+                .filter(e -> "UserService.createUser".equals(e.getString("operation")))
+                .findFirst().orElseThrow();
+            assertEquals(2, created.getLong("sqlStatements"));
+            assertFalse(created.getDuration("dbTime").isZero());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should record not-found outcomes of service calls")
+    void testNotFoundOutcome() throws Exception {
+        // Arrange
+        long missingId = Long.MAX_VALUE - System.nanoTime();
+        userService.findById(missingId);
+
+        // Act
+        byte[] dump = mockMvc.perform(get("/actuator/jfr").param("minutes", "1"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        Path file = Files.createTempFile("tuto-test-", ".jfr");
+        try {
+            Files.write(file, dump);
+            RecordedEvent call = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.tuto.UserServiceCall"))
+                .filter(e -> e.getLong("userId") == missingId)
+                .findFirst().orElseThrow();
+            assertEquals("not-found", call.getString("outcome"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a window that is not positive")
+    void testInvalidWindow() throws Exception {
+        mockMvc.perform(get("/actuator/jfr").param("minutes", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String type) {
+        return events.stream()
+            .filter(e -> e.getEventType().getName().equals(type))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + type + " event for the user"));
+    }
+}
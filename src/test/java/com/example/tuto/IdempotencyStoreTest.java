@@ -0,0 +1,120 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Idempotency-Key dedupe store
+ */
+class IdempotencyStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private ResponseEntity<String> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("user-" + calls.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response for a repeated key")
+    void testReplay() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 100, clock::get);
+
+        ResponseEntity<String> first = store.execute("k", "body", this::created);
+        ResponseEntity<String> second = store.execute("k", "body", this::created);
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should run the action again after the entry expires")
+    void testTtl() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofSeconds(10), 100, clock::get);
+
+        store.execute("k", "body", this::created);
+        clock.addAndGet(10_000);
+        ResponseEntity<String> afterExpiry = store.execute("k", "body", this::created);
+
+        assertEquals(2, calls.get());
+        assertEquals("user-2", afterExpiry.getBody());
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest entries beyond the size bound")
+    void testBounded() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 3, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            store.execute("k" + i, "body", this::created);
+        }
+
+        assertEquals(3, store.size());
+        store.execute("k0", "body", this::created);
+        assertEquals(11, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not remember failed actions")
+    void testFailureNotRetained() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 100, clock::get);
+
+        assertThrows(IllegalStateException.class, () -> store.execute("k", "body", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        ResponseEntity<String> retried = store.execute("k", "body", this::created);
+
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent requests with the same key into one action")
+    void testCoalescing() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 100, clock::get);
+        CountDownLatch actionStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ResponseEntity<String>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> store.execute("k", "body", () -> {
+                    actionStarted.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return created();
+                })));
+            }
+            assertTrue(actionStarted.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            for (Future<ResponseEntity<String>> result : results) {
+                assertEquals("user-1", result.get(5, TimeUnit.SECONDS).getBody());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bounded in-memory outbox sink
+ */
+class InMemoryOutboxSinkTest {
+
+    private static OutboxEvent event(long aggregateId) {
+        return new OutboxEvent(aggregateId, aggregateId, "CREATED", "{}", Instant.now());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent events, oldest first")
+    void testBounded() {
+        // Arrange
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(3);
+
+        // Act
+        sink.publish(List.of(event(1), event(2)));
+        sink.publish(LongStream.rangeClosed(3, 5).mapToObj(InMemoryOutboxSinkTest::event).toList());
+
+        // Assert
+        assertEquals(List.of(3L, 4L, 5L), sink.getPublished().stream().map(OutboxEvent::getAggregateId).toList());
+    }
+}
@@ -0,0 +1,517 @@
+package com.example.tuto;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open-loop load generator for /api/users.
+ *
+ * Boots {@link TutoApplication} on a random port (or targets {@code --url}),
+ * seeds {@code --users} users and then issues requests at a fixed arrival
+ * rate, whatever the response times. Each request has an intended start
+ * time on the schedule; response time is measured from that instant, so a
+ * stalled server shows up as latency instead of silently lowering the rate
+ * (coordinated omission). Service time, measured from the actual send, is
+ * reported alongside.
+ *
+ * Options (defaults in brackets):
+ * <pre>
+ *   --rate=500               requests per second
+ *   --duration=30s           measured phase, after --warmup=10s
+ *   --mix=read:60,list:5,count:5,create:15,update:10,delete:5
+ *   --users=1000             users created before the run
+ *   --name-length=16         size of generated names
+ *   --concurrency=256        maximum requests in flight
+ *   --clients=16             distinct X-Client-Id values
+ *   --seed=42                random seed for the workload
+ *   --report=target/load-report.md
+ *   --url=http://host:port   drive an already running instance instead
+ *   --&lt;property&gt;=&lt;value&gt;     any other option is passed to the application,
+ *                            e.g. --tuto.limits.enabled=true (default false);
+ *                            add --tuto.limits.trusted-proxies=127.0.0.1 so
+ *                            the clients get separate buckets
+ * </pre>
+ *
+ * Run with: ./mvnw -Pload-test test-compile exec:exec "-Dload-test.args=--rate=1000 --duration=60s"
+ */
+public class LoadTestHarness {
+
+    enum Operation {
+        READ, LIST, COUNT, CREATE, UPDATE, DELETE
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, String> options;
+    private final Map<String, String> applicationProperties;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<Operation, Integer> mix;
+    private final int users;
+    private final int nameLength;
+    private final int concurrency;
+    private final int clients;
+    private final long seed;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final UserIds ids = new UserIds();
+    private URI baseUri;
+
+    LoadTestHarness(String[] args) {
+        options = new LinkedHashMap<>();
+        applicationProperties = new LinkedHashMap<>();
+        applicationProperties.put("tuto.limits.enabled", "false");
+        applicationProperties.put("spring.jpa.show-sql", "false");
+        applicationProperties.put("logging.level.root", "warn");
+        List<String> known = List.of("rate", "duration", "warmup", "mix", "users", "name-length",
+                "concurrency", "clients", "seed", "report", "url");
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            (known.contains(name) ? options : applicationProperties).put(name, value);
+        }
+        rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        duration = parseDuration(options.getOrDefault("duration", "30s"));
+        mix = parseMix(options.getOrDefault("mix", "read:60,list:5,count:5,create:15,update:10,delete:5"));
+        users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        nameLength = Integer.parseInt(options.getOrDefault("name-length", "16"));
+        concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        if (rate <= 0 || concurrency < 1 || clients < 1 || nameLength < 1) {
+            throw new IllegalArgumentException("rate, concurrency, clients and name-length must be positive");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestHarness(args).run();
+    }
+
+    void run() throws Exception {
+        ConfigurableApplicationContext context = null;
+        try {
+            if (options.containsKey("url")) {
+                baseUri = URI.create(options.get("url"));
+            } else {
+                context = startApplication();
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                baseUri = URI.create("http://localhost:" + port);
+            }
+            seedUsers();
+
+            System.out.printf("Warming up for %s at %.0f req/s%n", warmup, rate);
+            runPhase(warmup, seed - 1);
+            System.out.printf("Measuring for %s at %.0f req/s%n", duration, rate);
+            Instant startedAt = Instant.now();
+            PhaseResult result = runPhase(duration, seed);
+
+            String report = report(startedAt, result);
+            System.out.println(report);
+            Path reportFile = Path.of(options.getOrDefault("report", "target/load-report.md"));
+            if (reportFile.getParent() != null) {
+                Files.createDirectories(reportFile.getParent());
+            }
+            Files.writeString(reportFile, report);
+            System.out.println("Report written to " + reportFile.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /** Properties go in as command-line arguments so they override application.properties */
+    private ConfigurableApplicationContext startApplication() {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        applicationProperties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return new SpringApplicationBuilder(TutoApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private void seedUsers() throws Exception {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < users; i++) {
+            HttpResponse<String> response = send(createRequest(random, "seed"));
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            ids.add(idOf(response.body()));
+        }
+    }
+
+    /**
+     * Issues requests on the fixed schedule for {@code length}. The scheduler
+     * thread never waits for responses; each request runs on its own virtual
+     * thread and queues on the concurrency limit if necessary.
+     */
+    private PhaseResult runPhase(Duration length, long phaseSeed) throws InterruptedException {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        int total = (int) (length.toNanos() / periodNanos);
+        PhaseResult result = new PhaseResult(total);
+        Semaphore inFlight = new Semaphore(concurrency);
+        SplittableRandom random = new SplittableRandom(phaseSeed);
+        Operation[] schedule = operationSchedule(total, random);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                long intended = start + i * periodNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = i;
+                SplittableRandom requestRandom = random.split();
+                executor.execute(() -> execute(index, schedule[index], intended, requestRandom, inFlight, result));
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Operation[] operationSchedule(int total, SplittableRandom random) {
+        int weightSum = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[total];
+        for (int i = 0; i < total; i++) {
+            int pick = random.nextInt(weightSum);
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    schedule[i] = entry.getKey();
+                    break;
+                }
+            }
+        }
+        return schedule;
+    }
+
+    private void execute(int index, Operation operation, long intended, SplittableRandom random,
+                         Semaphore inFlight, PhaseResult result) {
+        boolean ok = false;
+        int status = -1;
+        long sent = intended;
+        try {
+            inFlight.acquire();
+            try {
+                HttpRequest request = request(operation, random, index);
+                sent = System.nanoTime();
+                HttpResponse<String> response = send(request);
+                status = response.statusCode();
+                ok = handle(operation, response);
+            } finally {
+                inFlight.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            ok = false;
+        }
+        long done = System.nanoTime();
+        result.record(index, operation, done - intended, done - sent, ok ? 0 : status);
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random, int index) {
+        String client = "load-" + (index % clients);
+        return switch (operation) {
+            case READ -> get("/api/users/" + ids.pick(random), client);
+            case LIST -> get("/api/users", client);
+            case COUNT -> get("/api/users/count", client);
+            case CREATE -> createRequest(random, client);
+            case UPDATE -> HttpRequest.newBuilder(baseUri.resolve("/api/users/" + ids.pick(random)))
+                    .header("Content-Type", "application/json")
+                    .header(RequestLimiterFilter.CLIENT_ID_HEADER, client)
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"" + name(random) + "\"}"))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(baseUri.resolve("/api/users/" + ids.take(random)))
+                    .header(RequestLimiterFilter.CLIENT_ID_HEADER, client)
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    private HttpRequest get(String path, String client) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header(RequestLimiterFilter.CLIENT_ID_HEADER, client)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createRequest(SplittableRandom random, String client) {
+        String name = name(random);
+        return HttpRequest.newBuilder(baseUri.resolve("/api/users"))
+                .header("Content-Type", "application/json")
+                .header(RequestLimiterFilter.CLIENT_ID_HEADER, client)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"" + name + "\",\"email\":\"" + name.toLowerCase() + "@example.com\"}"))
+                .build();
+    }
+
+    private String name(SplittableRandom random) {
+        char[] name = new char[nameLength];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        name[0] = Character.toUpperCase(name[0]);
+        return new String(name);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /** A 404 on a user that another request just deleted is expected and not an error */
+    private boolean handle(Operation operation, HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (operation == Operation.CREATE && status == 201) {
+            ids.add(idOf(response.body()));
+        }
+        return status < 400 || (status == 404 && operation != Operation.LIST && operation != Operation.COUNT);
+    }
+
+    private static long idOf(String userJson) {
+        int start = userJson.indexOf("\"id\":") + 5;
+        int end = start;
+        while (end < userJson.length() && (Character.isDigit(userJson.charAt(end)) || userJson.charAt(end) == '-')) {
+            end++;
+        }
+        return Long.parseLong(userJson.substring(start, end));
+    }
+
+    private String report(Instant startedAt, PhaseResult result) {
+        StringBuilder out = new StringBuilder();
+        out.append("# Load test report\n\n");
+        out.append("Started ").append(startedAt).append(", target ").append(baseUri).append("\n\n");
+        out.append("| option | value |\n|---|---|\n");
+        out.append("| rate | ").append(rate).append(" req/s |\n");
+        out.append("| duration | ").append(duration).append(" (warmup ").append(warmup).append(") |\n");
+        out.append("| mix | ").append(mix).append(" |\n");
+        out.append("| users | ").append(users).append(", name length ").append(nameLength).append(" |\n");
+        out.append("| concurrency | ").append(concurrency).append(", clients ").append(clients).append(" |\n");
+        out.append("| cores | ").append(Runtime.getRuntime().availableProcessors()).append(" |\n");
+        applicationProperties.forEach((name, value) ->
+                out.append("| ").append(name).append(" | ").append(value).append(" |\n"));
+
+        double seconds = result.elapsedNanos / 1e9;
+        out.append(String.format("%nAchieved %.1f req/s over %.1f s (%d requests, %d errors)%n%n",
+                result.completed() / seconds, seconds, result.completed(), result.errors()));
+        if (!result.failureStatuses.isEmpty()) {
+            out.append("Errors by status (-1 = no response): ").append(new TreeMap<>(result.failureStatuses)).append("\n\n");
+        }
+
+        out.append("Response time is measured from the scheduled start, service time from the actual send (ms).\n\n");
+        out.append("| operation | count | errors | req/s |");
+        for (double p : PERCENTILES) {
+            out.append(" p").append(format(p)).append(" |");
+        }
+        out.append(" max |");
+        for (double p : PERCENTILES) {
+            out.append(" service p").append(format(p)).append(" |");
+        }
+        out.append("\n|---|---|---|---|").append("---|".repeat(PERCENTILES.length * 2 + 1)).append('\n');
+        for (Operation operation : Operation.values()) {
+            appendRow(out, operation.name().toLowerCase(), result.responseTimes(operation),
+                    result.serviceTimes(operation), result.errors(operation), seconds);
+        }
+        appendRow(out, "all", result.responseTimes(null), result.serviceTimes(null), result.errors(), seconds);
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String name, long[] response, long[] service,
+                                  long errors, double seconds) {
+        if (response.length == 0) {
+            return;
+        }
+        out.append("| ").append(name).append(" | ").append(response.length).append(" | ").append(errors)
+           .append(" | ").append(String.format("%.1f", response.length / seconds)).append(" |");
+        for (double p : PERCENTILES) {
+            out.append(String.format(" %.2f |", percentile(response, p) / 1e6));
+        }
+        out.append(String.format(" %.2f |", response[response.length - 1] / 1e6));
+        for (double p : PERCENTILES) {
+            out.append(String.format(" %.2f |", percentile(service, p) / 1e6));
+        }
+        out.append('\n');
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    /** Nearest-rank percentile of sorted values */
+    static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Duration must end in ms, s or m: " + value);
+        };
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split(":");
+            int weight = Integer.parseInt(entry[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + part);
+            }
+            mix.put(Operation.valueOf(entry[0].toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no weight: " + value);
+        }
+        return mix;
+    }
+
+    /** Ids of users believed to exist; deletes take ids out so they are not deleted twice */
+    private static final class UserIds {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Long> ids = new ArrayList<>();
+
+        void add(long id) {
+            lock.lock();
+            try {
+                ids.add(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long pick(SplittableRandom random) {
+            lock.lock();
+            try {
+                return ids.isEmpty() ? 0 : ids.get(random.nextInt(ids.size()));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long take(SplittableRandom random) {
+            lock.lock();
+            try {
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int index = random.nextInt(ids.size());
+                long id = ids.get(index);
+                ids.set(index, ids.get(ids.size() - 1));
+                ids.remove(ids.size() - 1);
+                return id;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Per-request slots indexed by schedule position, so recording needs no locking */
+    private static final class PhaseResult {
+        private final Operation[] operations;
+        private final long[] responseNanos;
+        private final long[] serviceNanos;
+        private final boolean[] failed;
+        private final Map<Integer, AtomicLong> failureStatuses = new ConcurrentHashMap<>();
+        private final AtomicLong completed = new AtomicLong();
+        long elapsedNanos;
+
+        PhaseResult(int size) {
+            operations = new Operation[size];
+            responseNanos = new long[size];
+            serviceNanos = new long[size];
+            failed = new boolean[size];
+        }
+
+        /** @param failureStatus 0 for success, the HTTP status of a failure, or -1 if no response arrived */
+        void record(int index, Operation operation, long response, long service, int failureStatus) {
+            operations[index] = operation;
+            responseNanos[index] = response;
+            serviceNanos[index] = service;
+            failed[index] = failureStatus != 0;
+            if (failureStatus != 0) {
+                failureStatuses.computeIfAbsent(failureStatus, status -> new AtomicLong()).incrementAndGet();
+            }
+            completed.incrementAndGet();
+        }
+
+        long completed() {
+            return completed.get();
+        }
+
+        long errors() {
+            return errors(null);
+        }
+
+        long errors(Operation operation) {
+            long errors = 0;
+            for (int i = 0; i < failed.length; i++) {
+                if (failed[i] && (operation == null || operations[i] == operation)) {
+                    errors++;
+                }
+            }
+            return errors;
+        }
+
+        long[] responseTimes(Operation operation) {
+            return sorted(responseNanos, operation);
+        }
+
+        long[] serviceTimes(Operation operation) {
+            return sorted(serviceNanos, operation);
+        }
+
+        private long[] sorted(long[] values, Operation operation) {
+            long[] selected = new long[values.length];
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (operations[i] != null && (operation == null || operations[i] == operation)) {
+                    selected[count++] = values[i];
+                }
+            }
+            long[] result = Arrays.copyOf(selected, count);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write throughput of UserRepository.save with 16 concurrent writers: the
+ * JPA repository over a file database, committing every transaction to the
+ * file (WRITE_DELAY=0), against LogUserRepository with and without fsync.
+ *
+ * insert saves new users; update saves a new version of a user owned by the
+ * writing thread, which for JPA means a merge (select, then update).
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=LogUserRepositoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class LogUserRepositoryBenchmark {
+
+    @Param({"h2", "log", "log-nofsync"})
+    public String store;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private final AtomicLong ids = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Writer {
+        User user;
+
+        @Setup
+        public void setup(LogUserRepositoryBenchmark benchmark) {
+            user = benchmark.userRepository.save(new User(benchmark.ids.incrementAndGet(), "writer", "writer@example.com"));
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("log-benchmark");
+        context = new SpringApplicationBuilder(TutoApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("h2") + ";WRITE_DELAY=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--tuto.near-cache.enabled=false",
+                "--tuto.jfr.enabled=false",
+                "--tuto.users.store=" + (store.startsWith("log") ? "log" : "jpa"),
+                "--tuto.users.log.dir=" + directory.resolve("log"),
+                "--tuto.users.log.fsync=" + !"log-nofsync".equals(store),
+                "--logging.level.root=WARN");
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Object insert() {
+        return userRepository.save(new User(ids.incrementAndGet(), "user", "user@example.com"));
+    }
+
+    @Benchmark
+    public Object update(Writer writer) {
+        writer.user.setName(writer.user.getName().length() > 20 ? "writer" : writer.user.getName() + "!");
+        writer.user = userRepository.save(writer.user);
+        return writer.user;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogUserRepositoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
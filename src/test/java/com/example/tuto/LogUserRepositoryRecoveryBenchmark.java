@@ -0,0 +1,118 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from opening a store of 1,000,000 users, a fifth of them updated
+ * once, until it has served one lookup: H2 opening its database file against
+ * LogUserRepository replaying its log into the index.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=LogUserRepositoryRecoveryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LogUserRepositoryRecoveryBenchmark {
+
+    private static final int USERS = 1_000_000;
+
+    @Param({"h2", "log"})
+    public String store;
+
+    private Path directory;
+    private String url;
+    private Connection connection;
+    private LogUserRepository repository;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        url = "jdbc:h2:file:" + directory.resolve("h2");
+        if ("h2".equals(store)) {
+            try (Connection seed = DriverManager.getConnection(url, "sa", "");
+                 Statement statement = seed.createStatement()) {
+                statement.execute("create table users (id bigint primary key, email varchar(255), "
+                    + "name varchar(255), version bigint default 0 not null)");
+                statement.execute("insert into users select x, 'user' || x || '@example.com', 'user' || x, 0 "
+                    + "from system_range(1, " + USERS + ")");
+                statement.execute("update users set name = name || '!', version = 1 where mod(id, 5) = 0");
+                statement.execute("shutdown");
+            }
+        } else {
+            LogUserRepository seed = open(false);
+            for (long id = 1; id <= USERS; id++) {
+                User user = seed.save(new User(id, "user" + id, "user" + id + "@example.com"));
+                if (id % 5 == 0) {
+                    user.setName(user.getName() + "!");
+                    seed.save(user);
+                }
+            }
+            seed.destroy();
+        }
+    }
+
+    private LogUserRepository open(boolean fsync) {
+        return new LogUserRepository(directory.resolve("log"), fsync, Duration.ZERO, DataSize.ofMegabytes(1),
+            new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object recover() throws SQLException {
+        if ("h2".equals(store)) {
+            connection = DriverManager.getConnection(url, "sa", "");
+            try (PreparedStatement query = connection.prepareStatement("select name from users where id = ?")) {
+                query.setLong(1, USERS / 2);
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    return rows.getString(1);
+                }
+            }
+        }
+        repository = open(true);
+        return repository.findById((long) USERS / 2).orElseThrow();
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws Exception {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        if (repository != null) {
+            repository.destroy();
+            repository = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogUserRepositoryRecoveryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
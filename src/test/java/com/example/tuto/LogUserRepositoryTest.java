@@ -0,0 +1,308 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.h2.Driver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the log-structured user store, reopening the log in a temporary
+ * directory to check what survives a restart
+ */
+class LogUserRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry registry;
+    private LogUserRepository repository;
+
+    private LogUserRepository open() {
+        registry = new SimpleMeterRegistry();
+        repository = new LogUserRepository(directory, true, Duration.ZERO, DataSize.ofMegabytes(1), registry);
+        return repository;
+    }
+
+    private LogUserRepository reopen() throws InterruptedException {
+        repository.destroy();
+        return open();
+    }
+
+    private long logSize() throws IOException {
+        return Files.size(directory.resolve(LogUserRepository.LOG_FILE));
+    }
+
+    @AfterEach
+    void close() throws InterruptedException {
+        repository.destroy();
+    }
+
+    @Test
+    @DisplayName("Should recover saves, updates and deletes after a restart")
+    void testRecovery() throws Exception {
+        // Arrange
+        open();
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        User grace = repository.save(new User(2L, "Grace", "grace@example.com"));
+        repository.save(new User(3L, "Zoë 日本", null));
+        grace.setName("Grace Hopper");
+        repository.save(grace);
+        repository.deleteById(1L);
+
+        // Act
+        reopen();
+
+        // Assert
+        assertEquals(2, repository.count());
+        assertFalse(repository.existsById(1L));
+        User recovered = repository.findById(2L).orElseThrow();
+        assertEquals("Grace Hopper", recovered.getName());
+        assertEquals(1, recovered.getVersion());
+        assertEquals("Zoë 日本", repository.findById(3L).orElseThrow().getName());
+        assertNull(repository.findById(3L).orElseThrow().getEmail());
+    }
+
+    @Test
+    @DisplayName("Should cut off a record torn by a crash and keep appending after it")
+    void testTornTail() throws Exception {
+        // Arrange
+        open();
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+        repository.destroy();
+        long intact = logSize();
+        try (FileChannel log = FileChannel.open(directory.resolve(LogUserRepository.LOG_FILE), StandardOpenOption.APPEND)) {
+            log.write(ByteBuffer.allocate(12).putInt(200).putInt(0).putInt(42).flip());
+        }
+
+        // Act
+        open();
+        repository.save(new User(3L, "Alan", "alan@example.com"));
+        reopen();
+
+        // Assert
+        assertEquals(3, repository.count());
+        assertEquals("Alan", repository.findById(3L).orElseThrow().getName());
+        assertTrue(logSize() > intact);
+    }
+
+    @Test
+    @DisplayName("Should drop the last record when its checksum does not match")
+    void testCorruptRecord() throws Exception {
+        // Arrange
+        open();
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+        repository.destroy();
+        try (FileChannel log = FileChannel.open(directory.resolve(LogUserRepository.LOG_FILE), StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.wrap(new byte[] {'X'}), log.size() - 1);
+        }
+
+        // Act
+        open();
+
+        // Assert
+        assertEquals(1, repository.count());
+        assertTrue(repository.existsById(1L));
+    }
+
+    @Test
+    @DisplayName("Should shrink the log to the live records when compacting")
+    void testCompaction() throws Exception {
+        // Arrange
+        open();
+        for (long id = 1; id <= 100; id++) {
+            User user = repository.save(new User(id, "user" + id, "user" + id + "@example.com"));
+            for (int i = 0; i < 5; i++) {
+                user.setName("user" + id + "-" + i);
+                repository.save(user);
+            }
+            if (id % 2 == 0) {
+                repository.deleteById(id);
+            }
+        }
+        long before = logSize();
+
+        // Act
+        repository.compact();
+
+        // Assert
+        assertTrue(logSize() < before / 10, "log shrank from " + before + " to " + logSize());
+        assertEquals(0, registry.get("users.log.bytes").tag("state", "dead").gauge().value());
+        assertEquals("user99-4", repository.findById(99L).orElseThrow().getName());
+        reopen();
+        assertEquals(50, repository.count());
+        assertEquals(5, repository.findById(99L).orElseThrow().getVersion());
+        assertFalse(Files.exists(directory.resolve(LogUserRepository.COMPACTION_FILE)));
+    }
+
+    @Test
+    @DisplayName("Should keep writes made while compacting")
+    void testWritesDuringCompaction() throws Exception {
+        // Arrange
+        open();
+        for (long id = 1; id <= 1000; id++) {
+            repository.save(new User(id, "old", "old@example.com"));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong written = new AtomicLong();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (long id = 1; running.get() || id <= 1000; id++) {
+                User user = repository.findById(id).orElseGet(() -> null);
+                if (user != null) {
+                    user.setName("new");
+                    repository.save(user);
+                } else {
+                    repository.save(new User(id, "new", "new@example.com"));
+                }
+                written.set(id);
+            }
+        });
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            repository.compact();
+        }
+        running.set(false);
+        writer.join();
+        reopen();
+
+        // Assert
+        long last = Math.max(1000, written.get());
+        assertEquals(last, repository.count());
+        List<Long> stale = new ArrayList<>();
+        for (long id = 1; id <= written.get(); id++) {
+            if (!"new".equals(repository.findById(id).orElseThrow().getName())) {
+                stale.add(id);
+            }
+        }
+        assertEquals(List.of(), stale);
+    }
+
+    @Test
+    @DisplayName("Should make every record durable through shared fsyncs")
+    void testGroupCommit() throws Exception {
+        // Arrange
+        open();
+        int threads = 16;
+        int writesPerThread = 50;
+
+        // Act
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = t * 1000L;
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (long id = base; id < base + writesPerThread; id++) {
+                    repository.save(new User(id, "user" + id, "user" + id + "@example.com"));
+                }
+            }, runnable -> Thread.ofVirtual().start(runnable)));
+        }
+        writers.forEach(CompletableFuture::join);
+
+        // Assert
+        DistributionSummary commits = registry.get("users.log.commit.records").summary();
+        assertEquals(threads * writesPerThread, (long) commits.totalAmount());
+        assertTrue(commits.count() <= threads * writesPerThread);
+        assertEquals(threads * writesPerThread, reopen().count());
+    }
+
+    @Test
+    @DisplayName("Should reject stale versions and duplicate ids without writing")
+    void testConflicts() throws Exception {
+        // Arrange
+        open();
+        repository.save(new User(1L, "Ada", "ada@example.com"));
+        User first = repository.findById(1L).orElseThrow();
+        User second = repository.findById(1L).orElseThrow();
+        repository.save(first);
+        long size = logSize();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.save(second));
+        assertThrows(DuplicateKeyException.class, () -> repository.save(new User(1L, "Other", "other@example.com")));
+        assertEquals(size, logSize());
+    }
+
+    @Test
+    @DisplayName("Should append nothing for a rolled back transaction")
+    void testRollback() throws Exception {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        open().save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+        long size = logSize();
+
+        // Act
+        transactions.executeWithoutResult(status -> {
+            User ada = repository.findById(1L).orElseThrow();
+            ada.setEmail("ada@lovelace.org");
+            repository.save(ada);
+            repository.deleteById(2L);
+            repository.save(new User(3L, "Carol", "carol@example.com"));
+            status.setRollbackOnly();
+        });
+        LogUserRepository reopened = reopen();
+
+        // Assert
+        assertEquals(size, logSize());
+        User ada = reopened.findById(1L).orElseThrow();
+        assertEquals("ada@example.com", ada.getEmail());
+        assertEquals(0, ada.getVersion());
+        assertEquals("Grace", reopened.findById(2L).orElseThrow().getName());
+        assertFalse(reopened.existsById(3L));
+    }
+
+    @Test
+    @DisplayName("Should append a transaction's writes only when it commits")
+    void testCommit() throws Exception {
+        // Arrange
+        TransactionTemplate transactions = new TransactionTemplate(
+            new DataSourceTransactionManager(new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:")));
+        open().save(new User(1L, "Ada", "ada@example.com"));
+        repository.save(new User(2L, "Grace", "grace@example.com"));
+        long size = logSize();
+
+        // Act
+        transactions.executeWithoutResult(status -> {
+            User ada = repository.findById(1L).orElseThrow();
+            ada.setEmail("ada@lovelace.org");
+            repository.save(ada);
+            repository.deleteById(2L);
+            repository.save(new User(3L, "Carol", "carol@example.com"));
+            assertEquals(size, directory.resolve(LogUserRepository.LOG_FILE).toFile().length());
+        });
+        LogUserRepository reopened = reopen();
+
+        // Assert
+        User ada = reopened.findById(1L).orElseThrow();
+        assertEquals("ada@lovelace.org", ada.getEmail());
+        assertEquals(1, ada.getVersion());
+        assertFalse(reopened.existsById(2L));
+        assertEquals("Carol", reopened.findById(3L).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the UserService contract against the log-structured store. Writes
+ * of the rolled back test transaction never reach the log, but those of
+ * tests that commit do, so the store is emptied after each test.
+ */
+@Import({LogUserRepository.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"tuto.users.store=log", "tuto.users.log.compaction-interval=0s"})
+class LogUserServiceTest extends UserServiceTest {
+
+    @TempDir
+    static Path logDirectory;
+
+    @DynamicPropertySource
+    static void logDirectory(DynamicPropertyRegistry registry) {
+        registry.add("tuto.users.log.dir", () -> logDirectory.toString());
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void clearStore() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should write users to the log")
+    void testUsesLogStore() throws Exception {
+        long before = Files.size(logDirectory.resolve(LogUserRepository.LOG_FILE));
+
+        userService.createUser("Ada", "ada@example.com");
+
+        assertInstanceOf(LogUserRepository.class, userRepository);
+        assertTrue(Files.size(logDirectory.resolve(LogUserRepository.LOG_FILE)) > before);
+    }
+}
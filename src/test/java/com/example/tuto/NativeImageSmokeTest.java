@@ -0,0 +1,126 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the CRUD integration flow against the native executable.
+ *
+ * Enabled only when {@code native.binary} points at the binary, which the
+ * native Maven profile sets for the failsafe run: ./mvnw -Pnative verify
+ */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeImageSmokeTest {
+
+    private static Process process;
+    private static TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void startBinary() throws Exception {
+        Path binary = Path.of(System.getProperty("native.binary"));
+        assertTrue(Files.isExecutable(binary), binary + " is not executable");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        long start = System.nanoTime();
+        process = new ProcessBuilder(binary.toString(), "--server.port=" + port)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        restTemplate = new TestRestTemplate(new RestTemplateBuilder().rootUri("http://localhost:" + port));
+
+        long deadline = start + 30_000_000_000L;
+        while (true) {
+            assertTrue(process.isAlive(), "binary exited with " + (process.isAlive() ? 0 : process.exitValue()));
+            try {
+                if (restTemplate.getForEntity("/api/users/count", Integer.class).getStatusCode() == HttpStatus.OK) {
+                    break;
+                }
+            } catch (Exception notYetListening) {
+                // keep polling
+            }
+            assertTrue(System.nanoTime() < deadline, "binary did not answer within 30s");
+            Thread.sleep(10);
+        }
+        System.out.printf("Native image answered after %d ms, RSS %s%n",
+            (System.nanoTime() - start) / 1_000_000, residentSetSize(process.pid()));
+    }
+
+    @AfterAll
+    static void stopBinary() throws Exception {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static String residentSetSize(long pid) {
+        try {
+            return Files.readAllLines(Path.of("/proc", Long.toString(pid), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.substring("VmRSS:".length()).trim())
+                .findFirst().orElse("unknown");
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    @Test
+    @DisplayName("Native: Should create, read, update and delete a user over HTTP")
+    void testCrudFlow() {
+        // CREATE
+        ResponseEntity<User> created = restTemplate.postForEntity("/api/users",
+            new CreateUserRequest("Native User", "native@example.com"), User.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        Long id = created.getBody().getId();
+        assertNotNull(id);
+
+        // READ
+        ResponseEntity<User> fetched = restTemplate.getForEntity("/api/users/" + id, User.class);
+        assertEquals(HttpStatus.OK, fetched.getStatusCode());
+        assertEquals("native@example.com", fetched.getBody().getEmail());
+        ResponseEntity<User[]> all = restTemplate.getForEntity("/api/users", User[].class);
+        assertTrue(List.of(all.getBody()).stream().anyMatch(user -> id.equals(user.getId())));
+
+        // UPDATE
+        ResponseEntity<User> updated = restTemplate.exchange("/api/users/" + id, HttpMethod.PUT,
+            new HttpEntity<>(new UpdateUserRequest("Native Renamed", null)), User.class);
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals("Native Renamed", updated.getBody().getName());
+
+        // DELETE
+        ResponseEntity<Void> deleted = restTemplate.exchange("/api/users/" + id, HttpMethod.DELETE,
+            null, Void.class);
+        assertEquals(HttpStatus.NO_CONTENT, deleted.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity("/api/users/" + id, User.class).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Native: Should evaluate expressions through method handles")
+    void testExpressionEndpoint() {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/calc/eval",
+            Map.of("expression", "a * (b + 2)", "variables", Map.of("a", 3, "b", 4)), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(18.0, ((Number) response.getBody().get("result")).doubleValue());
+    }
+}
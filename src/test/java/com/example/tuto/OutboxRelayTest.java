@@ -0,0 +1,84 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the transactional outbox and its relay
+ */
+@SpringBootTest
+class OutboxRelayTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() throws Exception {
+        outboxRelay.relayPending();
+        sink.clear();
+    }
+
+    private List<OutboxEvent> publishedFor(Long userId) {
+        return sink.getPublished().stream()
+            .filter(event -> event.getAggregateId().equals(userId))
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Should relay create, update and delete events in order")
+    void testRelayInOrder() throws Exception {
+        User user = userService.createUser("Outbox", "outbox@example.com");
+        userService.updateUser(user.getId(), "Outbox Renamed", null);
+        userService.deleteUser(user.getId());
+
+        outboxRelay.relayPending();
+
+        List<String> types = publishedFor(user.getId()).stream()
+            .map(OutboxEvent::getEventType)
+            .distinct()
+            .toList();
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), types);
+        assertTrue(publishedFor(user.getId()).get(0).getPayload().contains("outbox@example.com"));
+        assertTrue(outboxRepository.findFirstByOrderByIdAsc().isEmpty(), "relayed events are removed");
+    }
+
+    @Test
+    @DisplayName("Should not write an outbox row when the user change rolls back")
+    void testRollback() throws Exception {
+        long before = outboxRepository.count();
+
+        Long userId = transactionTemplate.execute(status -> {
+            User user = userService.createUser("Rolled Back", "rollback@example.com");
+            status.setRollbackOnly();
+            return user.getId();
+        });
+
+        assertFalse(userRepository.existsById(userId));
+        assertTrue(outboxRepository.count() <= before);
+        outboxRelay.relayPending();
+        assertTrue(publishedFor(userId).isEmpty());
+    }
+}
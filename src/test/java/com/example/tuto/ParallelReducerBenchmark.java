@@ -0,0 +1,62 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sum, mean and even count over 32M ints: single-threaded Calculator.add
+ * against the fork-join reducer at several chunk sizes.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=ParallelReducer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class ParallelReducerBenchmark {
+
+    @Param({"16384", "262144"})
+    public int chunkSize;
+
+    private final Calculator calculator = new Calculator();
+    private int[] values;
+    private ParallelReducer reducer;
+
+    @Setup
+    public void setup() {
+        values = new Random(1).ints(32 << 20, -1_000_000, 1_000_000).toArray();
+        reducer = new ParallelReducer(ForkJoinPool.commonPool(), chunkSize, false);
+    }
+
+    @Benchmark
+    public long singleThreadedCalculator() {
+        int sum = 0;
+        long evens = 0;
+        for (int value : values) {
+            sum = calculator.add(sum, value);
+            if (calculator.isEven(value)) {
+                evens++;
+            }
+        }
+        return sum + evens;
+    }
+
+    @Benchmark
+    public ReductionResult parallelReducer() {
+        return reducer.reduce(values);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelReducerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the fork-join reduction engine
+ */
+class ParallelReducerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ReductionResult sequential(int[] values) {
+        BigInteger sum = BigInteger.ZERO;
+        BigInteger product = BigInteger.ONE;
+        long evens = 0;
+        Calculator calculator = new Calculator();
+        for (int value : values) {
+            sum = sum.add(BigInteger.valueOf(value));
+            product = product.multiply(BigInteger.valueOf(value));
+            if (calculator.isEven(value)) {
+                evens++;
+            }
+        }
+        return new ReductionResult(values.length, sum, product, evens);
+    }
+
+    @Test
+    @DisplayName("Should match a sequential reduction")
+    void testMatchesSequential() {
+        int[] values = new Random(11).ints(10_000, -1000, 1000).toArray();
+
+        ReductionResult result = new ParallelReducer(ForkJoinPool.commonPool(), 128, true).reduce(values);
+
+        assertEquals(sequential(values), result);
+    }
+
+    @Test
+    @DisplayName("Should return identical results for any pool size and chunk size")
+    void testDeterministic() {
+        int[] values = new Random(12).ints(50_000).toArray();
+        ReductionResult expected = new ParallelReducer(new ForkJoinPool(1), 1 << 20, false).reduce(values);
+
+        for (int parallelism : new int[] {1, 2, 7}) {
+            for (int chunkSize : new int[] {1, 100, 4096}) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    assertEquals(expected, new ParallelReducer(pool, chunkSize, false).reduce(values));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        assertNull(expected.product());
+    }
+
+    @Test
+    @DisplayName("Should compute an exact mean beyond the int range")
+    void testMean() {
+        int[] values = new int[1000];
+        Arrays.fill(values, Integer.MAX_VALUE);
+        values[0] = Integer.MAX_VALUE - 1000;
+
+        ReductionResult result = new ParallelReducer().reduce(values);
+
+        assertEquals(BigInteger.valueOf(Integer.MAX_VALUE).multiply(BigInteger.valueOf(1000)).subtract(BigInteger.valueOf(1000)),
+            result.sum());
+        assertEquals(new BigDecimal("2147483646"), result.mean());
+        assertEquals(BigDecimal.ZERO, new ParallelReducer().reduce(new int[0]).mean());
+    }
+
+    @Test
+    @DisplayName("Should reduce long arrays with exact sums and products")
+    void testLongs() {
+        long[] values = {Long.MAX_VALUE, Long.MAX_VALUE, 2, -3};
+
+        ReductionResult result = new ParallelReducer(ForkJoinPool.commonPool(), 1, true).reduce(values);
+
+        BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        assertEquals(max.add(max).subtract(BigInteger.ONE), result.sum());
+        assertEquals(max.multiply(max).multiply(BigInteger.valueOf(-6)), result.product());
+        assertEquals(1, result.evenCount());
+    }
+
+    @Test
+    @DisplayName("Should reduce a memory-mapped file of little-endian ints")
+    void testFile() throws Exception {
+        int[] values = new Random(13).ints(100_003, -50, 50).toArray();
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(values);
+        Path file = tempDir.resolve("metrics.bin");
+        Files.write(file, bytes.array());
+
+        ReductionResult result = new ParallelReducer(ForkJoinPool.commonPool(), 1000, true).reduce(file);
+
+        assertEquals(sequential(values), result);
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not whole ints")
+    void testTruncatedFile() throws Exception {
+        Path file = tempDir.resolve("broken.bin");
+        Files.write(file, new byte[] {1, 2, 3});
+
+        assertThrows(IllegalArgumentException.class, () -> new ParallelReducer().reduce(file));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the persistent profile twice on the same database file: users must
+ * survive the restart, and an online backup must be a restorable archive.
+ *
+ * The contexts are started by hand, with command-line arguments because
+ * those override the in-memory URL the build sets as a system property.
+ */
+class PersistentProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    @DisplayName("Should keep users across restarts and back them up online")
+    void testRestartAndBackup() throws Exception {
+        // Arrange
+        Long id;
+        Map<String, Object> backup;
+        try (ConfigurableApplicationContext context = start()) {
+            id = context.getBean(UserService.class).createUser("Durable", "durable@example.com").getId();
+
+            // Act
+            backup = context.getBean(DatabaseBackupEndpoint.class).backup();
+
+            // Assert - the URL settings reached the database
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals("32768", setting(jdbc, "CACHE_SIZE"));
+            assertEquals("0", setting(jdbc, "WRITE_DELAY"));
+            assertEquals("90", setting(jdbc, "AUTO_COMPACT_FILL_RATE"));
+
+            // Assert - the backup endpoint is not exposed over HTTP by default
+            String exposed = context.getEnvironment().getProperty("management.endpoints.web.exposure.include");
+            assertFalse(exposed.contains("backup"), exposed);
+        }
+
+        // Assert - the user is still there after a restart
+        try (ConfigurableApplicationContext context = start()) {
+            assertTrue(context.getBean(UserService.class).findById(id).isPresent());
+        }
+
+        // Assert - the backup holds the store file
+        Path archive = Path.of((String) backup.get("file"));
+        assertTrue(archive.startsWith(dataDir.resolve("backups")));
+        assertEquals(Files.size(archive), backup.get("bytes"));
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            assertTrue(zip.stream().map(ZipEntry::getName).anyMatch(name -> name.endsWith("tuto.mv.db")));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TutoApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("persistent")
+            .run("--spring.datasource.url=${tuto.h2.url}",
+                "--tuto.h2.path=" + dataDir.resolve("tuto"),
+                "--tuto.h2.backup-dir=" + dataDir.resolve("backups"),
+                "--tuto.h2.cache-size-kb=32768",
+                "--tuto.h2.write-delay-ms=0",
+                "--spring.jpa.show-sql=false");
+    }
+
+    private static String setting(JdbcTemplate jdbc, String name) {
+        return jdbc.queryForObject(
+            "select distinct setting_value from information_schema.settings where setting_name = ?", String.class, name);
+    }
+}
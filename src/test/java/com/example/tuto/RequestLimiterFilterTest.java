@@ -0,0 +1,181 @@
+package com.example.tuto;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.tuto.RequestLimiterFilter.BucketConfig;
+import static com.example.tuto.RequestLimiterFilter.EndpointClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for rate limiting and load shedding on /api/users
+ */
+class RequestLimiterFilterTest {
+
+    private static final String TRUSTED_PROXY = "10.0.0.1";
+
+    private final AtomicLong clock = new AtomicLong();
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private RequestLimiterFilter filter;
+
+    @BeforeEach
+    void setup() {
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(4, 1, 4, 2.0, 100);
+        filter = filter(100);
+    }
+
+    private RequestLimiterFilter filter(int maxTrackedClients) {
+        return new RequestLimiterFilter(true, Map.of(
+                EndpointClass.READ, new BucketConfig(100, 3),
+                EndpointClass.WRITE, new BucketConfig(100, 3),
+                EndpointClass.SCAN, new BucketConfig(1, 1),
+                EndpointClass.IMPORT, new BucketConfig(1, 1)),
+                maxTrackedClients, Set.of(TRUSTED_PROXY), concurrencyLimiter, 0.5, clock::get);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String clientId) throws Exception {
+        return perform(method, uri, TRUSTED_PROXY, clientId);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String remoteAddress, String clientId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddress);
+        if (clientId != null) {
+            request.addHeader(RequestLimiterFilter.CLIENT_ID_HEADER, clientId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    @DisplayName("Should classify endpoints by cost")
+    void testClassify() {
+        assertEquals(EndpointClass.SCAN, RequestLimiterFilter.classify(new MockHttpServletRequest("GET", "/api/users")));
+        assertEquals(EndpointClass.READ, RequestLimiterFilter.classify(new MockHttpServletRequest("GET", "/api/users/1")));
+        assertEquals(EndpointClass.WRITE, RequestLimiterFilter.classify(new MockHttpServletRequest("POST", "/api/users")));
+        assertEquals(EndpointClass.WRITE, RequestLimiterFilter.classify(new MockHttpServletRequest("DELETE", "/api/users/1")));
+        assertEquals(EndpointClass.SCAN, RequestLimiterFilter.classify(new MockHttpServletRequest("POST", "/api/users/lookup")));
+        assertEquals(EndpointClass.IMPORT, RequestLimiterFilter.classify(new MockHttpServletRequest("POST", "/api/users/import")));
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After when a client exhausts its bucket")
+    void testRateLimited() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/users/1", "a").getStatus());
+        }
+
+        MockHttpServletResponse limited = perform("GET", "/api/users/1", "a");
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client and per endpoint class")
+    void testIsolation() throws Exception {
+        assertEquals(200, perform("GET", "/api/users", "a").getStatus());
+        assertEquals(429, perform("GET", "/api/users", "a").getStatus());
+
+        // Expensive scans of client a do not eat into its cheap reads or into client b
+        assertEquals(200, perform("GET", "/api/users/1", "a").getStatus());
+        assertEquals(200, perform("GET", "/api/users", "b").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should ignore X-Client-Id from addresses that are not trusted proxies")
+    void testUntrustedClientId() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/users/1", "192.0.2.7", "id-" + i).getStatus());
+        }
+
+        // A fresh id does not buy a fresh bucket
+        assertEquals(429, perform("GET", "/api/users/1", "192.0.2.7", "id-3").getStatus());
+        assertEquals(200, perform("GET", "/api/users/1", "192.0.2.8", "id-3").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should share an overflow bucket once max-tracked-clients is reached")
+    void testTrackedClientsCap() throws Exception {
+        filter = filter(2);
+        assertEquals(200, perform("GET", "/api/users/1", "a").getStatus());
+        assertEquals(200, perform("GET", "/api/users/1", "b").getStatus());
+
+        // a and b still hold partly used buckets, so c and d share one
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/users/1", "c").getStatus());
+        }
+        assertEquals(429, perform("GET", "/api/users/1", "d").getStatus());
+
+        // Once a and b have refilled, the next sweep makes room again
+        clock.addAndGet(1_000_000_000L);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("GET", "/api/users/1", "d").getStatus());
+        }
+        assertEquals(429, perform("GET", "/api/users/1", "d").getStatus());
+        assertEquals(200, perform("GET", "/api/users/1", "e").getStatus());
+    }
+
+    @Test
+    @DisplayName("Should shed with 503 when the concurrency limit is exhausted")
+    void testLoadShedding() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire(1.0));
+        }
+
+        MockHttpServletResponse shed = perform("GET", "/api/users/1", "a");
+
+        assertEquals(503, shed.getStatus());
+        assertNotNull(shed.getHeader("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Should release the concurrency slot after the request")
+    void testRelease() throws Exception {
+        perform("GET", "/api/users/1", "a");
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should keep imports out of the adaptive concurrency limit")
+    void testImportBypassesConcurrencyLimit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire(1.0));
+        }
+        int limit = concurrencyLimiter.getLimit();
+        MockFilterChain slowImport = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                clock.addAndGet(60_000_000_000L);
+            }
+        };
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/users/import"), response, slowImport);
+
+        // Admitted although every slot is taken, and its minute-long latency is not sampled
+        assertEquals(200, response.getStatus());
+        assertEquals(4, concurrencyLimiter.getInFlight());
+        assertEquals(limit, concurrencyLimiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should not limit paths outside of the user API")
+    void testOtherPaths() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("GET", "/h2-console", "a").getStatus());
+        }
+    }
+}
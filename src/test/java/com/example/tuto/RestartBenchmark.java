@@ -0,0 +1,173 @@
+package com.example.tuto;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time to serve a large users table after a restart: the persistent profile
+ * reopening its database file, against the in-memory database re-seeded at
+ * startup. Each run is a fresh JVM, measured from process start until
+ * GET /api/users/{id} answers 200 for a row in the middle of the table.
+ *
+ * The re-seed is a single server-side INSERT ... SELECT from
+ * spring.sql.init.data-locations, the fastest way to refill the in-memory
+ * database; re-importing through the API takes much longer.
+ *
+ * The database file is seeded once and reused while the row count matches.
+ *
+ * Run with:
+ *   ./mvnw -Prestart-benchmark test-compile exec:exec "-Drestart-benchmark.args=--rows=10000000"
+ * Options: --rows (10000000), --runs (3), --dir (target/restart-benchmark),
+ * --heap (4g, for both modes)
+ */
+public class RestartBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        long rows = Long.parseLong(options.getOrDefault("rows", "10000000"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        Path dir = Path.of(options.getOrDefault("dir", "target/restart-benchmark")).toAbsolutePath();
+        String heap = options.getOrDefault("heap", "4g");
+
+        Files.createDirectories(dir);
+        Path database = dir.resolve("tuto");
+        seedFile(database, rows);
+        Path seedScript = dir.resolve("seed.sql");
+        Files.writeString(seedScript, insertUsers(rows) + ";\n");
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("persistent restart", List.of(
+            "--spring.profiles.active=persistent",
+            "--tuto.h2.path=" + database,
+            "--tuto.h2.backup-dir=" + dir.resolve("backups")));
+        modes.put("in-memory reseed", List.of(
+            "--spring.sql.init.mode=always",
+            "--spring.sql.init.schema-locations=classpath:db/schema.sql",
+            "--spring.sql.init.data-locations=file:" + seedScript,
+            "--spring.jpa.hibernate.ddl-auto=validate"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        Map<String, long[]> results = new LinkedHashMap<>();
+        modes.keySet().forEach(mode -> results.put(mode, new long[runs]));
+
+        // Interleave modes so that machine noise spreads evenly
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                long millis = timeToServe(mode.getValue(), heap, rows / 2 + 1, client);
+                results.get(mode.getKey())[run] = millis;
+                System.out.printf("run %d %-20s %8d ms%n", run + 1, mode.getKey(), millis);
+            }
+        }
+
+        System.out.printf("%n%,d users, database file %,d MB%n", rows,
+            Files.size(Path.of(database + ".mv.db")) / (1024 * 1024));
+        System.out.printf("%-20s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            long[] millis = result.getValue();
+            Arrays.sort(millis);
+            System.out.printf("%-20s %10d %10d %10d%n",
+                result.getKey(), millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+        }
+    }
+
+    private static String insertUsers(long rows) {
+        return "insert into users (id, name, email, version) "
+            + "select x, 'user' || x, 'user' || x || '@example.com', 0 from system_range(1, " + rows + ")";
+    }
+
+    private static void seedFile(Path database, long rows) throws SQLException, IOException {
+        String url = "jdbc:h2:file:" + database;
+        if (Files.exists(Path.of(database + ".mv.db"))) {
+            try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                 Statement statement = connection.createStatement();
+                 ResultSet count = statement.executeQuery("select count(*) from users")) {
+                if (count.next() && count.getLong(1) == rows) {
+                    return;
+                }
+            } catch (SQLException staleOrEmpty) {
+                // reseed below
+            }
+            Files.delete(Path.of(database + ".mv.db"));
+        }
+        System.out.printf("Seeding %,d users into %s.mv.db ...%n", rows, database);
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("runscript from 'classpath:db/schema.sql'");
+            statement.execute(insertUsers(rows));
+            statement.execute("shutdown compact");
+        }
+        System.out.printf("Seeded in %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static long timeToServe(List<String> appArgs, String heap, long id, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + heap);
+        command.add("--add-modules=jdk.incubator.vector");
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), TutoApplication.class.getName()));
+        command.addAll(appArgs);
+        command.addAll(List.of("--server.port=" + port, "--tuto.limits.enabled=false", "--spring.jpa.show-sql=false"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/" + id))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException notYetListening) {
+                    // keep polling
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT);
+        } finally {
+            // SIGTERM, so the persistent database closes cleanly before the next run
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
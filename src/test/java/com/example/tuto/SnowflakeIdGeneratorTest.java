@@ -0,0 +1,107 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the application-side Snowflake id generator
+ */
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("Should encode timestamp and node id into the id")
+    void testIdLayout() {
+        long now = SnowflakeIdGenerator.EPOCH + 123_456L;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42, () -> now);
+
+        long id = generator.nextId();
+
+        assertEquals(now, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(42, SnowflakeIdGenerator.nodeIdOf(id));
+        assertTrue(id > 0);
+    }
+
+    @Test
+    @DisplayName("Should stay strictly increasing when the clock goes backwards")
+    void testMonotonicWithClockSkew() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        long first = generator.nextId();
+        clock.addAndGet(-5_000);
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    @DisplayName("Should carry into the next millisecond when the sequence is exhausted")
+    void testSequenceOverflow() {
+        long now = SnowflakeIdGenerator.EPOCH + 1_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, () -> now);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 3 * (SnowflakeIdGenerator.SEQUENCE_MASK + 1); i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(7, SnowflakeIdGenerator.nodeIdOf(id));
+            previous = id;
+        }
+        assertTrue(SnowflakeIdGenerator.timestampOf(previous) > now);
+    }
+
+    @Test
+    @DisplayName("Should reject node ids outside of 10 bits")
+    void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    @DisplayName("Should generate unique, per-thread increasing ids under contention")
+    void testUniqueUnderContention() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                });
+            }
+
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : executor.invokeAll(tasks)) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "ids must increase within a thread");
+                    }
+                    assertTrue(seen.add(ids[i]), "duplicate id " + ids[i]);
+                }
+            }
+            assertEquals(threads * perThread, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
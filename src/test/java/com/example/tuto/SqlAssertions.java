@@ -0,0 +1,62 @@
+package com.example.tuto;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Round-trip budgets for tests, on top of {@link SqlStatistics}.
+ *
+ * <pre>
+ * SqlAssertions.assertStatementsAtMost(3, () -> userService.updateUser(id, "New", null));
+ * </pre>
+ *
+ * The code runs in a capturing scope on the calling thread, so it must not
+ * hand its JDBC work to another thread, and it must commit inside the
+ * measured code: statements Hibernate flushes when a test-managed
+ * transaction ends are not part of the count. A failed budget lists the
+ * executed SQL.
+ */
+final class SqlAssertions {
+
+    private SqlAssertions() {
+    }
+
+    /** Runs {@code code} and returns the JDBC work it did. */
+    static SqlCounts measure(Runnable code) {
+        try (SqlStatistics.Scope scope = SqlStatistics.open(true)) {
+            code.run();
+            return scope.counts();
+        }
+    }
+
+    static SqlCounts assertStatementsAtMost(long max, Runnable code) {
+        SqlCounts counts = measure(code);
+        if (counts.statements() > max) {
+            fail("Expected at most " + max + " statement(s) but got " + describe(counts));
+        }
+        return counts;
+    }
+
+    static SqlCounts assertStatementsExactly(long expected, Runnable code) {
+        SqlCounts counts = measure(code);
+        if (counts.statements() != expected) {
+            fail("Expected " + expected + " statement(s) but got " + describe(counts));
+        }
+        return counts;
+    }
+
+    static SqlCounts assertRowsAtMost(long max, Runnable code) {
+        SqlCounts counts = measure(code);
+        if (counts.rows() > max) {
+            fail("Expected at most " + max + " fetched row(s) but got " + describe(counts));
+        }
+        return counts;
+    }
+
+    private static String describe(SqlCounts counts) {
+        StringBuilder message = new StringBuilder(counts.toString()).append(':');
+        for (String sql : counts.sql()) {
+            message.append(System.lineSeparator()).append("  ").append(sql);
+        }
+        return message.toString();
+    }
+}
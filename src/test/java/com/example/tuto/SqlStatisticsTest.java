@@ -0,0 +1,213 @@
+package com.example.tuto;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SqlStatistics scopes and the counting DataSource, against
+ * a plain H2 database without Spring
+ */
+class SqlStatisticsTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-stats-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new SqlStatisticsDataSource(h2);
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id int primary key)");
+            statement.execute("insert into item values (1), (2), (3)");
+        }
+    }
+
+    @Test
+    @DisplayName("Should count statements and fetched rows inside a scope")
+    void testCountsStatementsAndRows() throws SQLException {
+        // Act
+        SqlCounts counts;
+        try (SqlStatistics.Scope scope = SqlStatistics.open(true);
+             Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("select id from item")) {
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    rows.getInt(1);
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("update item set id = id + 10 where id = 1");
+            }
+            counts = scope.counts();
+        }
+
+        // Assert
+        assertEquals(2, counts.statements());
+        assertEquals(3, counts.rows());
+        assertTrue(counts.jdbcNanos() > 0);
+        assertEquals("select id from item", counts.sql().get(0));
+        assertEquals("update item set id = id + 10 where id = 1", counts.sql().get(1));
+    }
+
+    @Test
+    @DisplayName("Should count a JDBC batch as one statement")
+    void testBatchIsOneStatement() {
+        // Act
+        SqlCounts counts = SqlAssertions.measure(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement insert = connection.prepareStatement("insert into item values (?)")) {
+                for (int id = 100; id < 110; id++) {
+                    insert.setInt(1, id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertEquals(1, counts.statements());
+    }
+
+    @Test
+    @DisplayName("Should add nested scope counts to the enclosing scope")
+    void testNestedScopes() throws SQLException {
+        // Arrange
+        SqlStatistics.Scope outer = SqlStatistics.open(false);
+        SqlCounts inner;
+
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("select 1");
+            try (SqlStatistics.Scope scope = SqlStatistics.open(false)) {
+                connection.createStatement().execute("select 2");
+                inner = scope.counts();
+            }
+        } finally {
+            outer.close();
+        }
+
+        // Assert
+        assertEquals(1, inner.statements());
+        assertEquals(2, outer.counts().statements());
+        assertNull(SqlStatistics.current());
+    }
+
+    @Test
+    @DisplayName("Should not count work outside of a scope")
+    void testNoScope() throws SQLException {
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            ResultSet resultSet = connection.createStatement().executeQuery("select id from item");
+
+            // Assert
+            assertFalse(Proxy.isProxyClass(resultSet.getClass()), "result sets outside a scope are not wrapped");
+        }
+        assertNull(SqlStatistics.current());
+        assertEquals(0, SqlAssertions.measure(() -> { }).statements());
+    }
+
+    @Test
+    @DisplayName("Should count work on a connection taken before the scope opened")
+    void testConnectionTakenBeforeScope() throws SQLException {
+        // Arrange - as in a test-managed transaction
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("select 1");
+
+            // Act
+            SqlCounts counts = SqlAssertions.measure(() -> {
+                try (ResultSet resultSet = connection.createStatement().executeQuery("select id from item")) {
+                    while (resultSet.next()) {
+                        // drain
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // Assert
+            assertEquals(1, counts.statements());
+            assertEquals(3, counts.rows());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep proxy identity and unwrap to the driver connection")
+    void testProxyIdentity() throws SQLException {
+        try (SqlStatistics.Scope scope = SqlStatistics.open(false);
+             Connection connection = dataSource.getConnection();
+             Connection other = dataSource.getConnection()) {
+            assertTrue(Proxy.isProxyClass(connection.getClass()));
+            assertEquals(connection, connection);
+            assertNotEquals(connection, other);
+            assertTrue(connection.isWrapperFor(JdbcConnection.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the executed SQL when a budget is exceeded")
+    void testBudgetFailureMessage() {
+        // Act
+        AssertionError error = assertThrows(AssertionError.class, () ->
+            SqlAssertions.assertStatementsAtMost(1, () -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    for (int id = 1; id <= 3; id++) {
+                        PreparedStatement select = connection.prepareStatement("select id from item where id = ?");
+                        select.setInt(1, id);
+                        select.executeQuery().close();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+
+        // Assert
+        assertTrue(error.getMessage().startsWith("Expected at most 1 statement(s) but got 3 statement(s)"));
+        assertTrue(error.getMessage().contains("select id from item where id = ?"));
+    }
+
+    @Test
+    @DisplayName("Should add a child scope opened on another thread to its parent")
+    void testChildScopeOnAnotherThread() throws Exception {
+        // Arrange
+        SqlCounts counts;
+        try (SqlStatistics.Scope parent = SqlStatistics.open(false)) {
+            Thread worker = Thread.ofVirtual().start(() -> {
+                try (SqlStatistics.Scope child = SqlStatistics.openChildOf(parent);
+                     Connection connection = dataSource.getConnection();
+                     Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery("select id from item")) {
+                    while (rows.next()) {
+                        rows.getInt(1);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                // Act: the worker's own scope is gone again
+                assertNull(SqlStatistics.current());
+            });
+            worker.join();
+            counts = parent.counts();
+        }
+
+        // Assert
+        assertEquals(1, counts.statements());
+        assertEquals(3, counts.rows());
+        assertNull(SqlStatistics.current());
+    }
+}
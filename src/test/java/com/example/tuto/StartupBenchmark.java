@@ -0,0 +1,113 @@
+package com.example.tuto;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time to first request: launches the packaged application in a fresh JVM
+ * per run and measures from process start until GET /api/users/count
+ * answers 200. JMH cannot measure this, since its forks already include the
+ * application classes and run without the CDS archive.
+ *
+ * Compares the default configuration with the fast profile alone, with AOT,
+ * and with AOT plus the CDS archive.
+ *
+ * Run with:
+ *   ./mvnw -Pfast-start package -DskipTests
+ *   java -cp target/test-classes com.example.tuto.StartupBenchmark [jar] [runs]
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args.length > 0 ? args[0] : "target/fast-start/tuto-0.0.1-SNAPSHOT.jar");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path archive = jar.resolveSibling("application.jsa");
+        if (!Files.exists(jar) || !Files.exists(archive)) {
+            System.err.println("Missing " + jar + " or " + archive + "; build with ./mvnw -Pfast-start package");
+            System.exit(1);
+        }
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("default", List.of());
+        modes.put("fast", List.of("-Dspring.profiles.active=fast"));
+        modes.put("fast+aot", List.of("-Dspring.profiles.active=fast", "-Dspring.aot.enabled=true"));
+        modes.put("fast+aot+cds", List.of("-Dspring.profiles.active=fast", "-Dspring.aot.enabled=true",
+            "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off", "-Xlog:cds+dynamic=off"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        Map<String, long[]> results = new LinkedHashMap<>();
+        modes.keySet().forEach(mode -> results.put(mode, new long[runs]));
+
+        // Interleave modes so that machine noise spreads evenly
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                results.get(mode.getKey())[run] = timeToFirstRequest(jar, mode.getValue(), client);
+            }
+        }
+
+        System.out.printf("%-14s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            long[] millis = result.getValue();
+            Arrays.sort(millis);
+            System.out.printf("%-14s %10d %10d %10d%n",
+                result.getKey(), millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+        }
+    }
+
+    private static long timeToFirstRequest(Path jar, List<String> jvmArgs, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("--add-modules=jdk.incubator.vector");
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/count"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException notYetListening) {
+                    // keep polling
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
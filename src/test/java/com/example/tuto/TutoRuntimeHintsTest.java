@@ -0,0 +1,35 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the native-image hints without building an image
+ */
+class TutoRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Should register reflection, proxy and resource hints")
+    void testHints() throws Exception {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new TutoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UserChangeEvent.class.getMethod("userId")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UserImporter.ImportRow.class.getMethod("email")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ExpressionCompiler.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/schema.sql").test(hints));
+    }
+}
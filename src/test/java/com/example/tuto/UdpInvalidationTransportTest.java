@@ -0,0 +1,75 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the UDP invalidation transport over the loopback interface
+ */
+class UdpInvalidationTransportTest {
+
+    /** A loopback address with a port that was free a moment ago */
+    private static InetSocketAddress freeAddress() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            return (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver a published invalidation to every peer")
+    void testPublish() throws Exception {
+        // Arrange
+        InetSocketAddress receiverAddress = freeAddress();
+        InetSocketAddress senderAddress = freeAddress();
+        try (UdpInvalidationTransport receiver = new UdpInvalidationTransport(receiverAddress, List.of(senderAddress));
+             UdpInvalidationTransport sender = new UdpInvalidationTransport(senderAddress, List.of(receiverAddress))) {
+            BlockingQueue<Invalidation> received = new LinkedBlockingQueue<>();
+            receiver.subscribe(received::add);
+            Invalidation invalidation = new Invalidation(7, 42, Long.MAX_VALUE, 123_456_789);
+
+            // Act
+            sender.publish(invalidation);
+            sender.publish(invalidation);
+
+            // Assert
+            assertEquals(invalidation, received.poll(5, TimeUnit.SECONDS));
+            assertEquals(invalidation, received.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop invalidations from senders that are not peers")
+    void testDropStrangers() throws Exception {
+        // Arrange
+        InetSocketAddress receiverAddress = freeAddress();
+        InetSocketAddress peerAddress = freeAddress();
+        InetSocketAddress strangerAddress = freeAddress();
+        try (UdpInvalidationTransport receiver = new UdpInvalidationTransport(receiverAddress, List.of(peerAddress));
+             UdpInvalidationTransport peer = new UdpInvalidationTransport(peerAddress, List.of(receiverAddress));
+             UdpInvalidationTransport stranger = new UdpInvalidationTransport(strangerAddress, List.of(receiverAddress))) {
+            BlockingQueue<Invalidation> received = new LinkedBlockingQueue<>();
+            receiver.subscribe(received::add);
+            Invalidation forged = new Invalidation(9, 42, Long.MAX_VALUE, 1);
+            Invalidation genuine = new Invalidation(7, 43, 1, 2);
+
+            // Act - the stranger's datagram is sent first, so it would arrive first
+            stranger.publish(forged);
+            peer.publish(genuine);
+
+            // Assert
+            assertEquals(genuine, received.poll(5, TimeUnit.SECONDS));
+            assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tuto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.findById throughput with 64 concurrent callers: one query per
+ * lookup against the micro-batching loader at two windows.
+ *
+ * The near-cache and the second-level cache are off, so every lookup
+ * reaches the database. The loader needs a longer warmup than usual before
+ * its batches settle.
+ *
+ * Run with: ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=UserBatchLoader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+@Warmup(iterations = 6, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class UserBatchLoaderBenchmark {
+
+    private static final int USERS = 100_000;
+
+    /** 0 means batching disabled */
+    @Param({"0", "500us", "2ms"})
+    public String window;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(TutoApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=jdbc:h2:mem:batch-benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--tuto.near-cache.enabled=false",
+                "--tuto.jfr.enabled=false",
+                "--tuto.users.batch.enabled=" + !"0".equals(window),
+                "--tuto.users.batch.window=" + window,
+                "--logging.level.root=WARN");
+        context.getBean(JdbcTemplate.class).update(
+            "insert into users (id, name, email, version) "
+                + "select x, 'user' || x, 'user' || x || '@example.com', 0 from system_range(1, " + USERS + ")");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findById() {
+        return userService.findById(ThreadLocalRandom.current().nextLong(1, USERS + 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserBatchLoaderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
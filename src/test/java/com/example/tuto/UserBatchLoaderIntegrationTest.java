@@ -0,0 +1,88 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for batched user lookups through the multi-load
+ * repository fragment
+ */
+@SpringBootTest(properties = {
+    "tuto.users.batch.enabled=true",
+    "tuto.users.batch.window=100ms",
+    "tuto.near-cache.enabled=false"
+})
+class UserBatchLoaderIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBatchLoader userBatchLoader;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should multi-load users in the requested order with nulls for missing ids")
+    void testMultiLoad() {
+        // Arrange
+        User ada = userService.createUser("Ada", "ada@example.com");
+        User grace = userService.createUser("Grace", "grace@example.com");
+        entityManagerFactory.getCache().evictAll();
+
+        // Act
+        SqlCounts counts = SqlAssertions.measure(() -> {
+            List<User> users = userRepository.multiLoad(List.of(grace.getId(), Long.MAX_VALUE, ada.getId()), 100);
+
+            // Assert
+            assertEquals(3, users.size());
+            assertEquals("Grace", users.get(0).getName());
+            assertNull(users.get(1));
+            assertEquals("Ada", users.get(2).getName());
+        });
+        assertEquals(1, counts.statements());
+    }
+
+    @Test
+    @DisplayName("Should answer concurrent findById calls with one batched query")
+    void testBatchedFindById() {
+        // Arrange
+        User ada = userService.createUser("Ada", "ada@example.com");
+        User grace = userService.createUser("Grace", "grace@example.com");
+        entityManagerFactory.getCache().evictAll();
+        double batchesBefore = meterRegistry.summary("users.batch.size").count();
+
+        // Act
+        List<CompletableFuture<Optional<User>>> lookups = Arrays.asList(
+            userBatchLoader.loadAsync(ada.getId()),
+            userBatchLoader.loadAsync(Long.MAX_VALUE),
+            userBatchLoader.loadAsync(grace.getId()));
+        Optional<User> viaService = userService.findById(ada.getId());
+
+        // Assert
+        assertEquals("Ada", lookups.get(0).join().orElseThrow().getName());
+        assertTrue(lookups.get(1).join().isEmpty());
+        assertEquals("Grace", lookups.get(2).join().orElseThrow().getName());
+        assertEquals("Ada", viaService.orElseThrow().getName());
+        assertEquals(1, meterRegistry.summary("users.batch.size").count() - batchesBefore);
+        assertEquals(1, meterRegistry.counter("users.batch.coalesced").count());
+    }
+}
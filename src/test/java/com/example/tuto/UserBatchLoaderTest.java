@@ -0,0 +1,127 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the micro-batching loader, with a fake batch query that knows
+ * users with even ids
+ */
+class UserBatchLoaderTest {
+
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UserBatchLoader loader;
+
+    private List<User> evenUsers(List<Long> ids) {
+        batches.add(List.copyOf(ids));
+        List<User> users = new ArrayList<>();
+        for (Long id : ids) {
+            users.add(id % 2 == 0 ? new User(id, "User " + id, id + "@example.com") : null);
+        }
+        return users;
+    }
+
+    private UserBatchLoader loader(Duration window, int maxSize) {
+        loader = new UserBatchLoader(this::evenUsers, registry, window, maxSize, 2);
+        return loader;
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        loader.destroy();
+    }
+
+    @Test
+    @DisplayName("Should read lookups arriving within the window with one query")
+    void testBatchesWithinWindow() {
+        // Arrange
+        UserBatchLoader loader = loader(Duration.ofMillis(200), 100);
+
+        // Act
+        CompletableFuture<Optional<User>> two = loader.loadAsync(2);
+        CompletableFuture<Optional<User>> three = loader.loadAsync(3);
+        CompletableFuture<Optional<User>> four = loader.loadAsync(4);
+
+        // Assert
+        assertEquals("User 2", two.join().orElseThrow().getName());
+        assertTrue(three.join().isEmpty());
+        assertEquals("User 4", four.join().orElseThrow().getName());
+        assertEquals(List.of(List.of(2L, 3L, 4L)), batches);
+        assertEquals(3, registry.summary("users.batch.size").totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should share one result between concurrent lookups of the same id")
+    void testCoalescesSameId() {
+        // Arrange
+        UserBatchLoader loader = loader(Duration.ofMillis(200), 100);
+
+        // Act
+        CompletableFuture<Optional<User>> first = loader.loadAsync(2);
+        CompletableFuture<Optional<User>> second = loader.loadAsync(2);
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(first.join().isPresent());
+        assertEquals(List.of(List.of(2L)), batches);
+        assertEquals(1, registry.counter("users.batch.coalesced").count());
+    }
+
+    @Test
+    @DisplayName("Should send a full batch without waiting for the window")
+    void testFullBatchSentEarly() throws Exception {
+        // Arrange
+        UserBatchLoader loader = loader(Duration.ofHours(1), 2);
+
+        // Act
+        CompletableFuture<Optional<User>> two = loader.loadAsync(2);
+        CompletableFuture<Optional<User>> four = loader.loadAsync(4);
+
+        // Assert
+        assertTrue(two.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(four.get(5, TimeUnit.SECONDS).isPresent());
+        assertEquals(List.of(List.of(2L, 4L)), batches);
+    }
+
+    @Test
+    @DisplayName("Should fail every lookup of a batch whose query failed")
+    void testFailure() {
+        // Arrange
+        loader = new UserBatchLoader(ids -> {
+            throw new IllegalStateException("database down");
+        }, registry, Duration.ofMillis(20), 100, 1);
+
+        // Act & Assert
+        CompletableFuture<Optional<User>> other = loader.loadAsync(4);
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> loader.load(2));
+        assertEquals("database down", failure.getMessage());
+        assertTrue(other.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Should complete pending lookups on shutdown")
+    void testDestroySendsPendingBatch() throws Exception {
+        // Arrange
+        UserBatchLoader loader = loader(Duration.ofHours(1), 100);
+        CompletableFuture<Optional<User>> pending = loader.loadAsync(2);
+
+        // Act
+        loader.destroy();
+
+        // Assert
+        assertTrue(pending.get(5, TimeUnit.SECONDS).isPresent());
+    }
+}
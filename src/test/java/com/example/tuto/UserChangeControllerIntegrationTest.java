@@ -0,0 +1,94 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the Server-Sent Events change feed
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ResourceLock(UserControllerIntegrationTest.SERVER_USERS)
+class UserChangeControllerIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeLog changeLog;
+
+    @Test
+    @DisplayName("Integration: Should replay changes after ?since= over SSE")
+    void testStreamChangesSince() throws Exception {
+        long since = changeLog.lastSequence();
+        User user = userService.createUser("Streamed", "streamed@example.com");
+        userService.updateUser(user.getId(), "Streamed Again", null);
+        userService.deleteUser(user.getId());
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/users/changes?since=" + since))
+            .timeout(Duration.ofSeconds(10))
+            .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals(200, response.statusCode());
+        List<String> eventNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body()))) {
+            String line;
+            while (eventNames.size() < 3 && (line = reader.readLine()) != null) {
+                if (line.startsWith("event:")) {
+                    eventNames.add(line.substring("event:".length()));
+                }
+            }
+        }
+
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), eventNames);
+    }
+
+    @Test
+    @DisplayName("Integration: Should reset a subscriber whose cursor is ahead of the log")
+    void testStreamResetAfterRestart() throws Exception {
+        // A cursor from before a restart, when the log had reached further
+        long since = changeLog.lastSequence() + 1000;
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/users/changes?since=" + since))
+            .timeout(Duration.ofSeconds(10))
+            .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals(200, response.statusCode());
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        // The stream ends right after the reset event
+        assertTrue(lines.contains("event:reset"), lines.toString());
+        assertTrue(lines.contains("data:" + changeLog.lastSequence()), lines.toString());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tuto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-process ring buffer of user changes
+ */
+class UserChangeLogTest {
+
+    private static UserChangeEvent deleted(long id) {
+        return UserChangeEvent.deleted(id, 0);
+    }
+
+    @Test
+    @DisplayName("Should number changes with a gap-free sequence")
+    void testSequence() {
+        UserChangeLog log = new UserChangeLog(8);
+
+        assertEquals(1, log.append(deleted(10)));
+        assertEquals(2, log.append(deleted(11)));
+
+        List<UserChangeLog.Entry> entries = log.readSince(0, 100);
+        assertEquals(2, entries.size());
+        assertEquals(10, entries.get(0).event().userId());
+        assertEquals(2, entries.get(1).sequence());
+    }
+
+    @Test
+    @DisplayName("Should resume reading after a given sequence")
+    void testResume() {
+        UserChangeLog log = new UserChangeLog(8);
+        for (int i = 1; i <= 5; i++) {
+            log.append(deleted(i));
+        }
+
+        List<UserChangeLog.Entry> entries = log.readSince(3, 100);
+
+        assertEquals(List.of(4L, 5L), entries.stream().map(UserChangeLog.Entry::sequence).toList());
+        assertEquals(2, log.readSince(0, 2).size());
+    }
+
+    @Test
+    @DisplayName("Should overwrite the oldest changes once the ring wraps")
+    void testWrap() {
+        UserChangeLog log = new UserChangeLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append(deleted(i));
+        }
+
+        assertEquals(10, log.lastSequence());
+        assertEquals(7, log.oldestSequence());
+        assertEquals(4, log.readSince(6, 100).size());
+        assertTrue(log.readSince(2, 100).isEmpty(), "overwritten sequences must not be returned");
+    }
+
+    @Test
+    @DisplayName("Should wake up waiting readers on append")
+    void testAwait() throws Exception {
+        UserChangeLog log = new UserChangeLog(4);
+
+        assertFalse(log.awaitAfter(0, 10, TimeUnit.MILLISECONDS));
+
+        Thread.ofVirtual().start(() -> log.append(deleted(1)));
+        assertTrue(log.awaitAfter(0, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should reject capacities that are not a power of two")
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new UserChangeLog(100));
+    }
+}
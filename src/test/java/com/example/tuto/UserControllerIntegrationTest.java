@@ -3,15 +3,21 @@ package com.example.tuto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -20,10 +26,18 @@ import static org.junit.jupiter.api.Assertions.*;
  * 
  * @SpringBootTest(webEnvironment = RANDOM_PORT) - Starts the full application
  * TestRestTemplate - Makes real HTTP calls to the running server
+ *
+ * The server commits on its own threads, so these tests cannot roll back.
+ * They assert only on the users they create, and hold a lock that keeps
+ * other classes writing to the same server context from running alongside.
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ResourceLock(UserControllerIntegrationTest.SERVER_USERS)
 class UserControllerIntegrationTest {
 
+    /** Lock for test classes that write users through the RANDOM_PORT context */
+    static final String SERVER_USERS = "tuto.server.users";
+
     @LocalServerPort
     private int port;
 
@@ -33,16 +47,11 @@ class UserControllerIntegrationTest {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     private String baseUrl;
 
     @BeforeEach
     void setup() {
         baseUrl = "http://localhost:" + port + "/api/users";
-        // Clear all users before each test using repository to reset state
-        userRepository.deleteAll();
     }
 
     // ========== CREATE Integration Tests ==========
@@ -71,14 +80,17 @@ class UserControllerIntegrationTest {
     @DisplayName("Integration: Should get all users via HTTP GET")
     void testGetAllUsersIntegration() {
         // Create test users
-        userService.createUser("Alice", "alice@example.com");
-        userService.createUser("Bob", "bob@example.com");
+        int before = restTemplate.getForEntity(baseUrl, User[].class).getBody().length;
+        User alice = userService.createUser("Alice", "alice@example.com");
+        User bob = userService.createUser("Bob", "bob@example.com");
 
         ResponseEntity<User[]> response = restTemplate.getForEntity(baseUrl, User[].class);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().length);
+        assertEquals(before + 2, response.getBody().length);
+        List<Long> ids = Arrays.stream(response.getBody()).map(User::getId).toList();
+        assertTrue(ids.containsAll(List.of(alice.getId(), bob.getId())));
     }
 
     @Test
@@ -239,6 +251,7 @@ class UserControllerIntegrationTest {
     @Test
     @DisplayName("Integration: Should get user count")
     void testGetUserCountIntegration() {
+        int before = userService.getUserCount();
         userService.createUser("User 1", "user1@example.com");
         userService.createUser("User 2", "user2@example.com");
 
@@ -248,6 +261,38 @@ class UserControllerIntegrationTest {
         );
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, response.getBody());
+        assertEquals(before + 2, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Integration: Should bulk import users from a CSV body")
+    void testImportUsersIntegration() {
+        int before = userService.getUserCount();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        String csv = "name,email\nCsv One,csv1@example.com\nCsv Two,csv2@example.com\n";
+
+        ResponseEntity<ImportResult> response = restTemplate.postForEntity(
+            baseUrl + "/import",
+            new HttpEntity<>(csv, headers),
+            ImportResult.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().imported());
+        assertEquals(0, response.getBody().rejected());
+        assertEquals(before + 2, userService.getUserCount());
+    }
+
+    @Test
+    @DisplayName("Integration: Should not serve JFR dumps on the application port")
+    void testFlightRecorderDumpNotExposed() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/actuator/jfr",
+            String.class
+        );
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 }
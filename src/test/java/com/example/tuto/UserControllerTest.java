@@ -6,11 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -25,7 +30,8 @@ import static org.hamcrest.Matchers.*;
  * @WebMvcTest - Tests only the web layer (controllers)
  * @MockBean - Creates a mock of the service
  */
-@WebMvcTest(UserController.class)
+@WebMvcTest(controllers = UserController.class, properties = "tuto.limits.enabled=false")
+@Import({IdempotencyStore.class, AsyncUserService.class})
 class UserControllerTest {
 
     @Autowired
@@ -34,6 +40,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImporter userImporter;
+
     private User testUser;
 
     @BeforeEach
@@ -76,6 +85,46 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("POST /api/users - Should replay the response for a repeated Idempotency-Key")
+    void testCreateUserIdempotent() throws Exception {
+        when(userService.createUser("John Doe", "john@example.com"))
+            .thenReturn(testUser);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/users")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"John Doe\",\"email\":\"john@example.com\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+
+        // Only the first request reached the service
+        verify(userService, times(1)).createUser("John Doe", "john@example.com");
+    }
+
+    @Test
+    @DisplayName("POST /api/users - Should return 422 when an Idempotency-Key is reused with another body")
+    void testCreateUserIdempotencyKeyReused() throws Exception {
+        when(userService.createUser(anyString(), anyString()))
+            .thenReturn(testUser);
+
+        mockMvc.perform(post("/api/users")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"John Doe\",\"email\":\"john@example.com\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/users")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Jane Doe\",\"email\":\"jane@example.com\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(userService, times(1)).createUser(anyString(), anyString());
+    }
+
     // ========== READ Tests ==========
 
     @Test
@@ -132,6 +181,80 @@ class UserControllerTest {
         verify(userService, times(1)).getUserCount();
     }
 
+    @Test
+    @DisplayName("GET /api/users/{id}/overview - Should return the user and the user count")
+    void testGetUserOverview() throws Exception {
+        when(userService.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userService.getUserCount()).thenReturn(5);
+
+        mockMvc.perform(get("/api/users/1/overview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.name").value("John Doe"))
+                .andExpect(jsonPath("$.userCount").value(5));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id}/overview - Should return 404 when user not found")
+    void testGetUserOverviewNotFound() throws Exception {
+        when(userService.findById(999L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/users/999/overview"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST /api/users/lookup - Should return users in request order and missing ids")
+    void testLookupUsers() throws Exception {
+        User user2 = new User(2L, "Bob", "bob@example.com");
+        when(userService.lookupUsers(List.of(2L, 999L, 1L)))
+            .thenReturn(new UserLookup(List.of(user2, testUser), List.of(999L)));
+
+        mockMvc.perform(post("/api/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[2,999,1]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].name").value("Bob"))
+                .andExpect(jsonPath("$.users[1].name").value("John Doe"))
+                .andExpect(jsonPath("$.missing", contains(999)));
+    }
+
+    @Test
+    @DisplayName("GET /api/users?ids= - Should look up the listed users")
+    void testGetUsersByIds() throws Exception {
+        when(userService.lookupUsers(List.of(1L, 3L)))
+            .thenReturn(new UserLookup(List.of(testUser), List.of(3L)));
+
+        mockMvc.perform(get("/api/users").param("ids", "1,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.missing", contains(3)));
+
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("POST /api/users/lookup - Should return 400 above the id limit or without ids")
+    void testLookupUsersTooMany() throws Exception {
+        String ids = LongStream.rangeClosed(1, 1001).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[" + ids + "]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users").param("ids", ""))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).lookupUsers(any());
+    }
+
     // ========== UPDATE Tests ==========
 
     @Test
@@ -175,6 +298,18 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("PUT /api/users/{id} - Should return 409 when a concurrent update won")
+    void testUpdateUserConflict() throws Exception {
+        when(userService.updateUser(anyLong(), anyString(), anyString()))
+            .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(put("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Jane\",\"email\":\"jane@example.com\"}"))
+                .andExpect(status().isConflict());
+    }
+
     // ========== DELETE Tests ==========
 
     @Test
@@ -199,6 +334,46 @@ class UserControllerTest {
         verify(userService, times(1)).deleteUser(999L);
     }
 
+    // ========== IMPORT Tests ==========
+
+    @Test
+    @DisplayName("POST /api/users/import - Should stream an NDJSON body to the importer")
+    void testImportUsers() throws Exception {
+        when(userImporter.importUsers(any(), eq(UserImporter.Format.NDJSON)))
+            .thenReturn(new ImportResult(2, 1, "rejects.tsv", 5));
+
+        mockMvc.perform(post("/api/users/import")
+                .contentType("application/x-ndjson")
+                .content("{\"name\":\"A\",\"email\":\"a@example.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectsFile").value("rejects.tsv"));
+    }
+
+    @Test
+    @DisplayName("POST /api/users/import - Should return 501 when the user store cannot be imported into")
+    void testImportUsersNotSupported() throws Exception {
+        when(userImporter.importUsers(any(), eq(UserImporter.Format.CSV)))
+            .thenThrow(new UnsupportedOperationException("not the users table"));
+
+        mockMvc.perform(post("/api/users/import")
+                .contentType("text/csv")
+                .content("A,a@example.com\n"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    @DisplayName("POST /api/users/import - Should reject unsupported content types")
+    void testImportUsersUnsupportedType() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(userImporter);
+    }
+
     // ========== COMPLETE CRUD WORKFLOW TEST ==========
 
     @Test
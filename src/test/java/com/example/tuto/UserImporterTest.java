@@ -0,0 +1,237 @@
+package com.example.tuto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bulk importer against the application database. Batches
+ * commit on worker threads, so nothing here can be rolled back; assertions
+ * are relative to the user count before each import.
+ */
+@SpringBootTest
+class UserImporterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+
+    @TempDir
+    Path tempDir;
+
+    private UserImporter importer;
+
+    @BeforeEach
+    void setup() {
+        // Small batches and several workers, so a few rows already span many concurrent batches
+        importer = new UserImporter(jdbcTemplate, transactionTemplate, entityManagerFactory, idGenerator,
+            objectMapper, new SimpleMeterRegistry(), 3, 3, 1000, tempDir, true, Clock.systemUTC());
+    }
+
+    @Test
+    @DisplayName("Should import valid CSV rows and write rejects with line numbers")
+    void testImportCsv() throws IOException {
+        // Arrange
+        String csv = String.join("\n",
+            "name,email",
+            "Ada Lovelace,ada@example.com",
+            "\"Hopper, Grace\",grace@example.com",
+            ",nobody@example.com",
+            "Alan Turing,not-an-email",
+            "Too,many,columns",
+            "",
+            "Edsger Dijkstra , edsger@example.com ");
+        int before = userService.getUserCount();
+        Path rejectsFile = tempDir.resolve("rejects.tsv");
+
+        // Act
+        ImportResult result = importer.importUsers(stream(csv), UserImporter.Format.CSV, rejectsFile);
+
+        // Assert
+        assertEquals(3, result.imported());
+        assertEquals(3, result.rejected());
+        assertEquals(rejectsFile.getFileName().toString(), result.rejectsFile());
+        assertEquals(before + 3, userService.getUserCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "select count(*) from users where name = 'Hopper, Grace' and email = 'grace@example.com'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "select count(*) from users where name = 'Edsger Dijkstra' and email = 'edsger@example.com'", Integer.class));
+        assertEquals(List.of(
+                "4\tName cannot be empty\t,nobody@example.com",
+                "5\tInvalid email\tAlan Turing,not-an-email",
+                "6\tExpected 2 columns\tToo,many,columns"),
+            Files.readAllLines(rejectsFile));
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON rows and reject malformed lines")
+    void testImportNdjson() throws IOException {
+        // Arrange
+        String ndjson = String.join("\n",
+            "{\"name\":\"Json One\",\"email\":\"json1@example.com\",\"ignored\":true}",
+            "{\"name\":\"Json Two\"",
+            "{\"name\":\"Json Three\",\"email\":\"json3@example.com\"}");
+        Path rejectsFile = tempDir.resolve("rejects.tsv");
+
+        // Act
+        ImportResult result = importer.importUsers(stream(ndjson), UserImporter.Format.NDJSON, rejectsFile);
+
+        // Assert
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+        assertTrue(Files.readString(rejectsFile).startsWith("2\tMalformed JSON\t"));
+    }
+
+    @Test
+    @DisplayName("Should reject NDJSON lines that are not objects")
+    void testImportNdjsonNonObjects() throws IOException {
+        // Arrange
+        String ndjson = String.join("\n",
+            "null",
+            "42",
+            "[\"Json\", \"json@example.com\"]",
+            "{\"name\":\"Json One\",\"email\":\"json1@example.com\"}");
+        Path rejectsFile = tempDir.resolve("rejects.tsv");
+
+        // Act
+        ImportResult result = importer.importUsers(stream(ndjson), UserImporter.Format.NDJSON, rejectsFile);
+
+        // Assert
+        assertEquals(1, result.imported());
+        assertEquals(3, result.rejected());
+        assertTrue(Files.readAllLines(rejectsFile).stream().allMatch(line -> line.contains("\tMalformed JSON\t")));
+    }
+
+    @Test
+    @DisplayName("Should import every row of a multi-batch file exactly once")
+    void testImportManyBatches() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append("Bulk ").append(i).append(",bulk").append(i).append("@example.com\n");
+        }
+        int before = userService.getUserCount();
+
+        // Act
+        ImportResult result = importer.importUsers(stream(csv.toString()), UserImporter.Format.CSV);
+
+        // Assert
+        assertEquals(1000, result.imported());
+        assertEquals(0, result.rejected());
+        assertNull(result.rejectsFile());
+        assertEquals(before + 1000, userService.getUserCount());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "no rejects file without rejects");
+        }
+    }
+
+    @Test
+    @DisplayName("Should write a CREATED outbox event for every imported user")
+    void testImportWritesOutbox() throws Exception {
+        // Arrange
+        String csv = "Outbox One,outbox.one@example.com\nOutbox Two,outbox.two@example.com\n";
+
+        // Act
+        importer.importUsers(stream(csv), UserImporter.Format.CSV, tempDir.resolve("rejects.tsv"));
+
+        // Assert - the relay delivers the rows to the sink
+        List<Long> ids = jdbcTemplate.queryForList(
+            "select id from users where email in ('outbox.one@example.com', 'outbox.two@example.com')", Long.class);
+        assertEquals(2, ids.size());
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        List<OutboxEvent> published;
+        do {
+            Thread.sleep(50);
+            published = outboxSink.getPublished().stream()
+                .filter(event -> ids.contains(event.getAggregateId()))
+                .toList();
+        } while (published.size() < 2 && System.nanoTime() < deadline);
+        assertEquals(2, published.size());
+        for (OutboxEvent event : published) {
+            assertEquals("CREATED", event.getEventType());
+            UserChangeEvent payload = objectMapper.readValue(event.getPayload(), UserChangeEvent.class);
+            assertEquals(event.getAggregateId(), payload.userId());
+            assertTrue(payload.email().startsWith("outbox."));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to import when users are not kept in the users table")
+    void testImportRefusedForOtherStores() {
+        // Arrange
+        UserImporter logStoreImporter = new UserImporter(jdbcTemplate, transactionTemplate, entityManagerFactory,
+            idGenerator, objectMapper, new SimpleMeterRegistry(), 3, 3, 1000, tempDir, false, Clock.systemUTC());
+        int before = userService.getUserCount();
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class,
+            () -> logStoreImporter.importUsers(stream("Ada,ada@example.com\n"), UserImporter.Format.CSV));
+        assertEquals(before, userService.getUserCount());
+    }
+
+    @Test
+    @DisplayName("Should import the files named by --import on the command line")
+    void testCommandLineImport() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("users.ndjson");
+        Files.writeString(file, "{\"name\":\"Cli User\",\"email\":\"cli@example.com\"}\n");
+        int before = userService.getUserCount();
+
+        // Act
+        new UserImportRunner(importer).run(new DefaultApplicationArguments("--import=" + file));
+
+        // Assert
+        assertEquals(before + 1, userService.getUserCount());
+        assertTrue(UserImportRunner.isImportCommand(new String[] {"--import=" + file}));
+        assertFalse(UserImportRunner.isImportCommand(new String[] {"--server.port=0"}));
+    }
+
+    @Test
+    @DisplayName("Should parse quoted CSV fields")
+    void testParseCsv() {
+        assertArrayEquals(new String[] {"a \"b\"", "c@d"}, UserImporter.parseCsv("\"a \"\"b\"\"\",c@d"));
+        assertThrows(IllegalArgumentException.class, () -> UserImporter.parseCsv("\"open,x@y"));
+        assertThrows(IllegalArgumentException.class, () -> UserImporter.parseCsv("only-one-column"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
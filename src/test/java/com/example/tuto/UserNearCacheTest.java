@@ -0,0 +1,195 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the near-cache, with two "nodes" sharing a loopback transport
+ */
+class UserNearCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final LoopbackInvalidationTransport bus = new LoopbackInvalidationTransport();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserNearCache node(int nodeId) {
+        return new UserNearCache(nodeId, bus, registry, 100, Duration.ofMinutes(1), clock::get);
+    }
+
+    private Optional<User> load(User user) {
+        loads.incrementAndGet();
+        return Optional.of(user);
+    }
+
+    private static UserChangeEvent updated(long id, String name, long version) {
+        return new UserChangeEvent(UserChangeEvent.Type.UPDATED, id, name, "a@example.com", version, Instant.now());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache as copies")
+    void testHit() {
+        // Arrange
+        UserNearCache cache = node(1);
+        cache.get(1, id -> load(new User(1L, "Ada", "a@example.com", 0)));
+
+        // Act
+        User cached = cache.get(1, id -> load(new User(1L, "Other", "a@example.com", 0))).orElseThrow();
+        cached.setName("Changed by caller");
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals("Ada", cache.get(1, id -> Optional.empty()).orElseThrow().getName());
+        assertEquals(2, registry.counter("user.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    @DisplayName("Should drop the entry on the other node when a user is updated")
+    void testRemoteInvalidation() {
+        // Arrange
+        UserNearCache writer = node(1);
+        UserNearCache reader = node(2);
+        reader.get(1, id -> load(new User(1L, "Ada", "a@example.com", 0)));
+
+        // Act
+        clock.addAndGet(250);
+        writer.onUserChange(updated(1, "Ada Lovelace", 1));
+        String name = reader.get(1, id -> load(new User(1L, "Ada Lovelace", "a@example.com", 1)))
+            .orElseThrow().getName();
+
+        // Assert
+        assertEquals("Ada Lovelace", name);
+        assertEquals(2, loads.get());
+        assertEquals(1, registry.counter("user.cache.invalidations", "source", "local").count());
+        assertEquals(1, registry.counter("user.cache.invalidations", "source", "remote").count());
+    }
+
+    @Test
+    @DisplayName("Should record the time from sending an invalidation to applying it")
+    void testInvalidationLag() {
+        // Arrange
+        UserNearCache reader = node(2);
+
+        // Act
+        bus.publish(new Invalidation(1, 1, 1, clock.get() - 3_000));
+
+        // Assert
+        Timer lag = registry.find("user.cache.invalidation.lag").timer();
+        assertEquals(1, lag.count());
+        assertEquals(3, lag.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, reader.size(), "the marker is kept");
+    }
+
+    @Test
+    @DisplayName("Should not cache a copy loaded before an invalidation that overtook it")
+    void testStaleLoad() {
+        // Arrange
+        UserNearCache writer = node(1);
+        UserNearCache reader = node(2);
+
+        // Act: the reader reads version 0, then the update commits elsewhere before it caches the row
+        reader.get(1, id -> {
+            writer.onUserChange(updated(1, "Ada Lovelace", 1));
+            return load(new User(1L, "Ada", "a@example.com", 0));
+        });
+        String name = reader.get(1, id -> load(new User(1L, "Ada Lovelace", "a@example.com", 1)))
+            .orElseThrow().getName();
+
+        // Assert
+        assertEquals("Ada Lovelace", name);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep a newer entry when an older invalidation arrives late")
+    void testOutOfOrderInvalidation() {
+        // Arrange
+        UserNearCache reader = node(2);
+        reader.get(1, id -> load(new User(1L, "Version 2", "a@example.com", 2)));
+
+        // Act
+        bus.publish(new Invalidation(1, 1, 1, clock.get()));
+
+        // Assert
+        assertEquals("Version 2", reader.get(1, id -> Optional.empty()).orElseThrow().getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should never cache a deleted user again")
+    void testDelete() {
+        // Arrange
+        UserNearCache writer = node(1);
+        UserNearCache reader = node(2);
+        reader.get(1, id -> load(new User(1L, "Ada", "a@example.com", 5)));
+
+        // Act
+        writer.onUserChange(UserChangeEvent.deleted(1, 5));
+        reader.get(1, id -> load(new User(1L, "Ada", "a@example.com", 5)));
+        reader.get(1, id -> Optional.empty());
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertTrue(reader.get(1, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop every entry on every node after invalidateAll")
+    void testInvalidateAll() {
+        // Arrange
+        UserNearCache writer = node(1);
+        UserNearCache reader = node(2);
+        reader.get(1, id -> load(new User(1L, "Ada", "a@example.com", 0)));
+        reader.get(2, id -> load(new User(2L, "Grace", "g@example.com", 0)));
+
+        // Act
+        writer.invalidateAll();
+
+        // Assert
+        assertEquals(0, reader.size());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the time-to-live")
+    void testTtl() {
+        // Arrange
+        UserNearCache cache = node(1);
+        cache.get(1, id -> load(new User(1L, "Ada", "a@example.com", 0)));
+
+        // Act
+        clock.addAndGet(Duration.ofMinutes(1).toNanos() / 1000);
+        cache.get(1, id -> load(new User(1L, "Ada", "a@example.com", 0)));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry beyond capacity")
+    void testCapacity() {
+        // Arrange
+        UserNearCache cache = new UserNearCache(1, bus, registry, 2, Duration.ofMinutes(1), clock::get);
+        cache.get(1, id -> load(new User(1L, "One", "1@example.com", 0)));
+        cache.get(2, id -> load(new User(2L, "Two", "2@example.com", 0)));
+        cache.get(1, id -> Optional.empty());
+
+        // Act
+        cache.get(3, id -> load(new User(3L, "Three", "3@example.com", 0)));
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(1, id -> Optional.empty()).isPresent());
+        assertTrue(cache.get(2, id -> Optional.empty()).isEmpty());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,16 +13,15 @@ import static org.junit.jupiter.api.Assertions.*;
  * This demonstrates testing with Spring's dependency injection
  * 
  * @SpringBootTest loads the complete Spring application context
+ * @Transactional rolls back each test, so no cleanup is needed
  */
 @SpringBootTest
+@Transactional
 class UserServiceIntegrationTest {
 
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Test
     @DisplayName("Should inject UserService from Spring context")
     void testServiceInjection() {
@@ -31,7 +31,6 @@ class UserServiceIntegrationTest {
     @Test
     @DisplayName("Should create and retrieve user using Spring-managed service")
     void testCreateUserWithSpringContext() {
-        userRepository.deleteAll();
         User user = userService.createUser("Spring User", "spring@example.com");
         
         assertNotNull(user);
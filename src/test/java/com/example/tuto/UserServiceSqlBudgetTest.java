@@ -0,0 +1,224 @@
+package com.example.tuto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Round-trip budgets for UserService, so an extra query per call fails the
+ * build instead of showing up in production.
+ *
+ * Not @Transactional on purpose: each service call must commit for the
+ * statements Hibernate flushes at commit to be counted. The budgets include
+ * the outbox row written with every change. Tests of reads that must reach
+ * the database evict the second-level cache first.
+ */
+@SpringBootTest(properties = "tuto.sql-stats.debug-headers=true")
+@AutoConfigureMockMvc
+class UserServiceSqlBudgetTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("createUser should issue at most 2 statements")
+    void testCreateUserBudget() {
+        // insert user, insert outbox event
+        SqlAssertions.assertStatementsAtMost(2, () -> userService.createUser("Budget", "budget@example.com"));
+    }
+
+    @Test
+    @DisplayName("updateUser should issue at most 3 statements")
+    void testUpdateUserBudget() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+
+        // Act & Assert: select, update user, insert outbox event
+        SqlAssertions.assertStatementsAtMost(3, () -> userService.updateUser(user.getId(), "Budget Two", null));
+    }
+
+    @Test
+    @DisplayName("deleteUser should issue at most 3 statements")
+    void testDeleteUserBudget() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+
+        // Act & Assert: select, delete user, insert outbox event
+        SqlAssertions.assertStatementsAtMost(3, () -> userService.deleteUser(user.getId()));
+    }
+
+    @Test
+    @DisplayName("findById should issue exactly 1 statement fetching 1 row")
+    void testFindByIdBudget() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+        entityManagerFactory.getCache().evictAll();
+
+        // Act
+        SqlCounts counts = SqlAssertions.assertStatementsExactly(1, () -> userService.findById(user.getId()));
+
+        // Assert
+        assertEquals(1, counts.rows());
+    }
+
+    @Test
+    @DisplayName("findById should issue no statements when the user is in the near-cache")
+    void testFindByIdCachedBudget() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+        userService.findById(user.getId());
+
+        // Act & Assert
+        SqlAssertions.assertStatementsExactly(0, () -> userService.findById(user.getId()));
+    }
+
+    @Test
+    @DisplayName("findById should read the updated user from the second-level cache after updateUser")
+    void testFindByIdAfterUpdate() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+        userService.findById(user.getId());
+
+        // Act
+        userService.updateUser(user.getId(), "Budget Two", null);
+
+        // Assert
+        SqlAssertions.assertStatementsExactly(0, () ->
+            assertEquals("Budget Two", userService.findById(user.getId()).orElseThrow().getName()));
+    }
+
+    @Test
+    @DisplayName("Repository lookups in separate sessions should reach the database once")
+    void testSecondLevelCacheBudget() {
+        // Arrange
+        User user = userService.createUser("Budget", "budget@example.com");
+        entityManagerFactory.getCache().evictAll();
+
+        // Act & Assert
+        SqlAssertions.assertStatementsExactly(1, () -> userRepository.findById(user.getId()));
+        SqlAssertions.assertStatementsExactly(0, () -> userRepository.findById(user.getId()));
+        FunctionCounter hits = meterRegistry.find("hibernate.second.level.cache.requests")
+            .tags("region", "users", "result", "hit")
+            .functionCounter();
+        assertNotNull(hits, "region statistics are published as metrics");
+        assertTrue(hits.count() >= 1);
+    }
+
+    @Test
+    @DisplayName("lookupUsers should issue 1 statement per 100 uncached ids")
+    void testLookupUsersBudget() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            ids.add(userService.createUser("Lookup " + i, "lookup" + i + "@example.com").getId());
+        }
+        entityManagerFactory.getCache().evictAll();
+
+        // Act
+        SqlCounts counts = SqlAssertions.assertStatementsExactly(2, () ->
+            assertEquals(150, userService.lookupUsers(ids).users().size()));
+
+        // Assert
+        assertEquals(150, counts.rows());
+        SqlAssertions.assertStatementsExactly(0, () -> userService.lookupUsers(ids));
+    }
+
+    @Test
+    @DisplayName("getUserCount should be served from the query cache until users change")
+    void testCountQueryCacheBudget() {
+        // Arrange
+        userService.getUserCount();
+
+        // Act & Assert
+        int count = userService.getUserCount();
+        SqlAssertions.assertStatementsExactly(0, () -> assertEquals(count, userService.getUserCount()));
+        userService.createUser("Budget", "budget@example.com");
+        SqlAssertions.assertStatementsExactly(1, () -> assertEquals(count + 1, userService.getUserCount()));
+    }
+
+    @Test
+    @DisplayName("getAllUsers should issue 1 statement however many users exist, and not cache the list")
+    void testGetAllUsersBudget() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            userService.createUser("Budget " + i, "budget" + i + "@example.com");
+        }
+
+        // Act
+        SqlCounts counts = SqlAssertions.assertStatementsExactly(1, () -> userService.getAllUsers());
+
+        // Assert - the list is read again rather than kept in the query cache
+        assertTrue(counts.rows() >= 5);
+        SqlAssertions.assertStatementsExactly(1, () -> userService.getAllUsers());
+    }
+
+    @Test
+    @DisplayName("Should record service metrics per UserService method")
+    void testServiceMetrics() {
+        // Arrange
+        User user = userService.createUser("Metered", "metered@example.com");
+
+        // Act
+        userService.findById(user.getId());
+
+        // Assert
+        DistributionSummary statements = meterRegistry.find("sql.statements")
+            .tags("scope", "service", "operation", "UserService.findById")
+            .summary();
+        assertNotNull(statements);
+        assertTrue(statements.count() >= 1);
+    }
+
+    @Test
+    @DisplayName("Should add SQL debug headers and record request metrics")
+    void testDebugHeadersAndRequestMetrics() throws Exception {
+        // Arrange
+        User user = userService.createUser("Headers", "headers@example.com");
+        entityManagerFactory.getCache().evictAll();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/{id}", user.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(SqlStatisticsFilter.STATEMENTS_HEADER, "1"))
+            .andExpect(header().string(SqlStatisticsFilter.ROWS_HEADER, "1"))
+            .andExpect(header().exists(SqlStatisticsFilter.TIME_HEADER));
+        assertNotNull(meterRegistry.find("sql.statements")
+            .tags("scope", "http", "operation", "GET /api/users/{id}")
+            .summary());
+    }
+
+    @Test
+    @DisplayName("Should add SQL debug headers to responses without a body")
+    void testDebugHeadersWithoutBody() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound())
+            .andExpect(header().string(SqlStatisticsFilter.STATEMENTS_HEADER, "1"))
+            .andExpect(header().string(SqlStatisticsFilter.ROWS_HEADER, "0"));
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.tuto;
 
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,21 +19,21 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * STEP 2: Testing a Service Class
  * This demonstrates unit testing for business logic using JPA repository
+ * @DataJpaTest runs each test in a transaction that is rolled back afterwards
  */
 @DataJpaTest
-@Import(UserService.class)
+@Import({UserService.class, SnowflakeIdGenerator.class})
+@RecordApplicationEvents
 class UserServiceTest {
 
     @Autowired
     private UserService userService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ApplicationEvents applicationEvents;
 
-    @BeforeEach
-    void setup() {
-        userRepository.deleteAll();
-    }
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Test
     @DisplayName("Should create a user successfully")
@@ -106,6 +111,22 @@ class UserServiceTest {
         assertEquals(3, userService.getUserCount());
     }
 
+    @Test
+    @DisplayName("Should look up users by id list in request order")
+    void testLookupUsers() {
+        // Given
+        User ada = userService.createUser("Ada", "ada@example.com");
+        User grace = userService.createUser("Grace", "grace@example.com");
+
+        // When
+        UserLookup lookup = userService.lookupUsers(List.of(grace.getId(), 999L, ada.getId(), grace.getId()));
+
+        // Then
+        assertEquals(List.of("Grace", "Ada"), lookup.users().stream().map(User::getName).toList());
+        assertEquals(List.of(999L), lookup.missing());
+        assertTrue(userService.lookupUsers(List.of()).users().isEmpty());
+    }
+
     @Test
     @DisplayName("Should delete user successfully")
     void testDeleteUser() {
@@ -273,4 +294,45 @@ class UserServiceTest {
         Optional<User> deletedUser = userService.findById(user.getId());
         assertFalse(deletedUser.isPresent());
     }
+
+    // ========== CHANGE EVENTS ==========
+
+    @Test
+    @DisplayName("Should publish a change event for every mutation")
+    void testChangeEvents() {
+        User user = userService.createUser("Alice", "alice@example.com");
+        userService.updateUser(user.getId(), "Alice Smith", null);
+        userService.deleteUser(user.getId());
+        userService.deleteUser(999L);
+
+        List<UserChangeEvent> events = applicationEvents.stream(UserChangeEvent.class).toList();
+
+        assertEquals(3, events.size());
+        assertEquals(UserChangeEvent.Type.CREATED, events.get(0).type());
+        assertEquals(UserChangeEvent.Type.UPDATED, events.get(1).type());
+        assertEquals("Alice Smith", events.get(1).name());
+        assertEquals(UserChangeEvent.Type.DELETED, events.get(2).type());
+        assertEquals(user.getId(), events.get(2).userId());
+    }
+
+    // ========== ROLLBACK ==========
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should not keep a user created in a rolled back transaction")
+    void testCreateUserRolledBack() {
+        // Given
+        int before = userService.getUserCount();
+
+        // When
+        Long id = new TransactionTemplate(transactionManager).execute(status -> {
+            User user = userService.createUser("Rolled Back", "rolled.back@example.com");
+            status.setRollbackOnly();
+            return user.getId();
+        });
+
+        // Then
+        assertFalse(userService.findById(id).isPresent());
+        assertEquals(before, userService.getUserCount());
+    }
 }